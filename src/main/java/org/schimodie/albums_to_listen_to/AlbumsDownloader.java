@@ -1,42 +1,257 @@
 package org.schimodie.albums_to_listen_to;
 
+import lombok.Builder;
 import lombok.Getter;
 import org.schimodie.albums_to_listen_to.bean.Album;
-import org.schimodie.albums_to_listen_to.client.MetalstormClient;
+import org.schimodie.albums_to_listen_to.client.MetalstormScraper;
+import org.schimodie.albums_to_listen_to.database.AlbumStore;
+import org.schimodie.albums_to_listen_to.database.DownloadCheckpoint;
 import org.schimodie.albums_to_listen_to.database.Storage;
 import org.schimodie.albums_to_listen_to.database.StorageFileName;
 
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.DEFAULT_CONCURRENCY;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.DEFAULT_REQUESTS_PER_SECOND;
 
 public class AlbumsDownloader {
+    public enum CutoffSearch {
+        LINEAR,
+        BINARY
+    }
+
     @Getter
     private final String fileName;
     private final Instant afterDate;
+    private final int concurrency;
+    private final double requestsPerSecond;
+    private final CutoffSearch cutoffSearch;
+    private final MetalstormScraper.Engine engine;
+    private final Supplier<MetalstormScraper> scraperFactory;
 
     public AlbumsDownloader(String fileNamePrefix, Instant afterDate) {
+        this(fileNamePrefix, afterDate, null, null, null, null, null);
+    }
+
+    @Builder
+    private AlbumsDownloader(String fileNamePrefix, Instant afterDate, Integer concurrency, Double requestsPerSecond,
+            CutoffSearch cutoffSearch, MetalstormScraper.Engine engine, Supplier<MetalstormScraper> scraperFactory) {
         Objects.requireNonNull(fileNamePrefix);
         Objects.requireNonNull(afterDate);
 
         this.afterDate = afterDate;
         this.fileName = StorageFileName.createFileName(fileNamePrefix, afterDate);
+        this.concurrency = Objects.requireNonNullElse(concurrency, DEFAULT_CONCURRENCY);
+        this.requestsPerSecond = Objects.requireNonNullElse(requestsPerSecond, DEFAULT_REQUESTS_PER_SECOND);
+        this.cutoffSearch = Objects.requireNonNullElse(cutoffSearch, CutoffSearch.LINEAR);
+        this.engine = Objects.requireNonNullElse(engine, MetalstormScraper.Engine.PLAYWRIGHT);
+        this.scraperFactory = Objects.requireNonNullElse(scraperFactory,
+                () -> MetalstormScraper.create(this.engine, this.concurrency, this.requestsPerSecond));
     }
 
+    // Every downloaded page is checkpointed, so a failed download resumes from the pages it already has; the
+    // checkpoint is only dropped once the albums have been written
     public void downloadAlbums() {
-        try (MetalstormClient msClient = new MetalstormClient()) {
-            int page = 1;
-            Instant dateOfLastAlbumOnThePage;
-            List<Album> albums = new ArrayList<>();
+        try (DownloadCheckpoint checkpoint = DownloadCheckpoint.open(fileName, afterDate)) {
+            Storage.writeAlbums(download(afterDate, checkpoint), fileName);
+            checkpoint.delete();
+        }
+    }
+
+    // Only fetches the pages newer than the store's last sync and returns the albums that are new or changed
+    public List<Album> downloadInto(AlbumStore albumStore) {
+        Instant cutoff = albumStore.syncCutoff(afterDate);
+        System.out.printf("Syncing the album store (%d albums) down to %s%n", albumStore.size(), cutoff);
+
+        List<Album> changedAlbums;
+        try (DownloadCheckpoint checkpoint = DownloadCheckpoint.open(fileName, cutoff)) {
+            changedAlbums = albumStore.merge(download(cutoff, checkpoint), cutoff);
+            albumStore.save();
+            checkpoint.delete();
+        }
+
+        System.out.printf("Found %d new or changed albums%n", changedAlbums.size());
+        return changedAlbums;
+    }
+
+    List<Album> download(Instant cutoff, DownloadCheckpoint checkpoint) {
+        try (MetalstormScraper msClient = scraperFactory.get()) {
+            PageFetcher pageFetcher = new PageFetcher(msClient, checkpoint);
+            pageFetcher.validateCheckpoint();
 
+            List<Album> albums;
+            if (cutoffSearch == CutoffSearch.BINARY) {
+                albums = downloadWithBinarySearch(pageFetcher, cutoff);
+            } else if (concurrency > 1) {
+                albums = downloadConcurrently(pageFetcher, cutoff);
+            } else {
+                albums = downloadSequentially(pageFetcher, cutoff);
+            }
+            return withoutDuplicates(albums);
+        }
+    }
+
+    // The listing moves while it is paged through, so an album pushed onto the next page can show up twice
+    private static List<Album> withoutDuplicates(List<Album> albums) {
+        Map<String, Album> albumsById = new LinkedHashMap<>();
+        albums.forEach(album -> albumsById.putIfAbsent(album.getAlbumId(), album));
+        return new ArrayList<>(albumsById.values());
+    }
+
+    private List<Album> downloadSequentially(PageFetcher pageFetcher, Instant cutoff) {
+        int page = 1;
+        List<Album> albums = new ArrayList<>();
+        List<Album> pageAlbums;
+
+        do {
+            pageAlbums = pageFetcher.fetchPage(page++);
+            albums.addAll(pageAlbums);
+        } while (!isLastPage(pageAlbums, cutoff));
+
+        return albums;
+    }
+
+    private List<Album> downloadConcurrently(PageFetcher pageFetcher, Instant cutoff) {
+        List<Album> albums = new ArrayList<>();
+        Deque<Future<List<Album>>> pagesInFlight = new ArrayDeque<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            int nextPage = 1;
+            for (; nextPage <= concurrency; ++nextPage) {
+                int page = nextPage;
+                pagesInFlight.add(executor.submit(() -> pageFetcher.fetchPage(page)));
+            }
+
+            List<Album> pageAlbums;
             do {
-                albums.addAll(msClient.getAlbums(page++));
-                dateOfLastAlbumOnThePage = msClient.getAlbumDate(albums.getLast().getAlbumId());
-                albums.getLast().setDate(dateOfLastAlbumOnThePage);
-            } while (dateOfLastAlbumOnThePage.isAfter(afterDate) || dateOfLastAlbumOnThePage.equals(afterDate));
+                pageAlbums = pagesInFlight.removeFirst().get();
+                albums.addAll(pageAlbums);
+
+                if (!isLastPage(pageAlbums, cutoff)) {
+                    int page = nextPage++;
+                    pagesInFlight.add(executor.submit(() -> pageFetcher.fetchPage(page)));
+                }
+            } while (!isLastPage(pageAlbums, cutoff));
+
+            pagesInFlight.forEach(future -> future.cancel(false));
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+
+        return albums;
+    }
+
+    // The listing is date ordered, so the last page to keep is found by probing pages 1, 2, 4, ... and bisecting
+    // the bracket; only the probed pages pay for an album date lookup, the rest are fetched in bulk afterwards
+    private List<Album> downloadWithBinarySearch(PageFetcher pageFetcher, Instant cutoff) {
+        Map<Integer, List<Album>> probedPages = new HashMap<>();
+        int lowerPage = 0;
+        int upperPage = 1;
+
+        while (!isLastPage(probedPages.computeIfAbsent(upperPage, pageFetcher::fetchPage), cutoff)) {
+            lowerPage = upperPage;
+            upperPage *= 2;
+        }
+
+        while (upperPage - lowerPage > 1) {
+            int middlePage = (lowerPage + upperPage) >>> 1;
+
+            if (isLastPage(probedPages.computeIfAbsent(middlePage, pageFetcher::fetchPage), cutoff)) {
+                upperPage = middlePage;
+            } else {
+                lowerPage = middlePage;
+            }
+        }
+
+        System.out.printf("Found the last page (%d) after %d probes%n", upperPage, probedPages.size());
+
+        Map<Integer, Future<List<Album>>> remainingPages = new HashMap<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            for (int page = 1; page <= upperPage; ++page) {
+                if (!probedPages.containsKey(page)) {
+                    int pageNumber = page;
+                    remainingPages.put(page, executor.submit(() -> pageFetcher.fetchUndatedPage(pageNumber)));
+                }
+            }
+
+            List<Album> albums = new ArrayList<>();
+            for (int page = 1; page <= upperPage; ++page) {
+                albums.addAll(probedPages.containsKey(page)
+                        ? probedPages.get(page)
+                        : remainingPages.get(page).get());
+            }
+
+            return albums;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isLastPage(List<Album> pageAlbums, Instant cutoff) {
+        return pageAlbums.isEmpty() || pageAlbums.getLast().getDate().isBefore(cutoff);
+    }
+
+    // Serves pages from the checkpoint when possible and records every page it had to fetch
+    private record PageFetcher(MetalstormScraper msClient, DownloadCheckpoint checkpoint) {
+        // Saved pages are only valid while the top of the listing is unchanged, since new releases push every
+        // album down and saved page N no longer lines up with live page N
+        void validateCheckpoint() {
+            if (checkpoint.size() == 0) {
+                return;
+            }
+
+            List<Album> livePage = msClient.getAlbums(1);
+            List<String> liveIds = livePage.stream().map(Album::getAlbumId).toList();
+            boolean isUnchanged = checkpoint.getPage(1)
+                    .map(savedPage -> savedPage.stream().map(Album::getAlbumId).toList().equals(liveIds))
+                    .orElse(false);
+
+            if (!isUnchanged) {
+                System.out.println("The listing changed since the checkpoint was saved, downloading from scratch");
+                checkpoint.reset();
+                checkpoint.recordPage(1, livePage);
+            }
+        }
+
+        List<Album> fetchPage(int page) {
+            Optional<List<Album>> checkpointedAlbums = checkpoint.getPage(page);
+            if (checkpointedAlbums.isPresent() && isDated(checkpointedAlbums.get())) {
+                return checkpointedAlbums.get();
+            }
+
+            List<Album> albums = checkpointedAlbums.orElseGet(() -> msClient.getAlbums(page));
+            if (!albums.isEmpty()) {
+                albums.getLast().setDate(msClient.getAlbumDate(albums.getLast().getAlbumId()));
+            }
+
+            checkpoint.recordPage(page, albums);
+            return albums;
+        }
+
+        List<Album> fetchUndatedPage(int page) {
+            return checkpoint.getPage(page).orElseGet(() -> {
+                List<Album> albums = msClient.getAlbums(page);
+                checkpoint.recordPage(page, albums);
+                return albums;
+            });
+        }
 
-            Storage.writeAlbums(albums, fileName);
+        private static boolean isDated(List<Album> albums) {
+            return albums.isEmpty() || albums.getLast().getDate() != null;
         }
     }
 }
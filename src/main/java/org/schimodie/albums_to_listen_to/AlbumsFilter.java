@@ -3,39 +3,253 @@ package org.schimodie.albums_to_listen_to;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.schimodie.albums_to_listen_to.bean.Album;
 import org.schimodie.albums_to_listen_to.client.LastFMClient;
+import org.schimodie.albums_to_listen_to.client.LastFMUserLibrary;
+import org.schimodie.albums_to_listen_to.database.LastFMResponseCache;
+import org.schimodie.albums_to_listen_to.filter.FilterPipeline;
+import org.schimodie.albums_to_listen_to.filter.FilterRules;
 import org.schimodie.common.data.Tuple2;
+import org.schimodie.common.utils.CircuitBreakerOpenException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AlbumsFilter {
-    private static final double epsilon = 0.0000001d;
+    public enum LookupMode {
+        SEQUENTIAL,
+        ASYNC,
+        VIRTUAL_THREADS
+    }
+
+    public enum PlayCountSource {
+        // One album.getinfo lookup per album
+        ALBUM_INFO,
+        // The user's library is fetched once, and only albums it can't settle are looked up one by one
+        USER_LIBRARY
+    }
+
+    public static final int DEFAULT_MAX_CONCURRENT_LOOKUPS = 8;
 
+    private final LastFMResponseCache lastFMCache;
     private final LastFMClient lastFMClient;
     private final List<Album> problemAlbums;
     private final List<Album> albums;
-
-    private int processedAlbums;
+    private final LookupMode lookupMode;
+    private final int maxConcurrentLookups;
+    private final PlayCountSource playCountSource;
+    private final FilterRules filterRules;
+    private final AtomicInteger processedAlbums;
 
     public AlbumsFilter(List<Album> albums) {
-        this.lastFMClient = new LastFMClient();
-        this.problemAlbums = new ArrayList<>();
+        this(albums, LookupMode.SEQUENTIAL);
+    }
+
+    public AlbumsFilter(List<Album> albums, LookupMode lookupMode) {
+        this(albums, lookupMode, DEFAULT_MAX_CONCURRENT_LOOKUPS);
+    }
+
+    public AlbumsFilter(List<Album> albums, LookupMode lookupMode, int maxConcurrentLookups) {
+        this(albums, lookupMode, maxConcurrentLookups, PlayCountSource.ALBUM_INFO);
+    }
+
+    public AlbumsFilter(List<Album> albums, LookupMode lookupMode, PlayCountSource playCountSource) {
+        this(albums, lookupMode, DEFAULT_MAX_CONCURRENT_LOOKUPS, playCountSource);
+    }
+
+    public AlbumsFilter(List<Album> albums, LookupMode lookupMode, int maxConcurrentLookups,
+            PlayCountSource playCountSource) {
+        this(albums, lookupMode, maxConcurrentLookups, playCountSource, FilterRules.defaults());
+    }
+
+    public AlbumsFilter(List<Album> albums, LookupMode lookupMode, int maxConcurrentLookups,
+            PlayCountSource playCountSource, FilterRules filterRules) {
+        this(albums, lookupMode, maxConcurrentLookups, playCountSource, filterRules, (LastFMResponseCache) null);
+    }
+
+    // Responses are only cached on disk when a cache is given
+    public AlbumsFilter(List<Album> albums, LookupMode lookupMode, int maxConcurrentLookups,
+            PlayCountSource playCountSource, FilterRules filterRules, LastFMResponseCache lastFMCache) {
+        this(albums, lookupMode, maxConcurrentLookups, playCountSource, filterRules, new LastFMClient(lastFMCache),
+                lastFMCache);
+    }
+
+    public AlbumsFilter(List<Album> albums, LookupMode lookupMode, int maxConcurrentLookups,
+            PlayCountSource playCountSource, FilterRules filterRules, LastFMClient lastFMClient,
+            LastFMResponseCache lastFMCache) {
+        this.lastFMCache = lastFMCache;
+        this.lastFMClient = lastFMClient;
+        this.problemAlbums = Collections.synchronizedList(new ArrayList<>());
         this.albums = albums;
+        this.lookupMode = lookupMode;
+        this.maxConcurrentLookups = maxConcurrentLookups;
+        this.playCountSource = playCountSource;
+        this.filterRules = filterRules;
+        this.processedAlbums = new AtomicInteger();
     }
 
+    // The estimates only seed the stage order; the local stages are reordered on what is measured during the run
     public Tuple2<List<Album>, List<Album>> filter() {
         problemAlbums.clear();
-        List<Album> filteredList = albums.stream()
-                .filter(album -> !album.getGenre().contains("grind")
-                        && (album.getType().equalsIgnoreCase("studio") || album.getType().equalsIgnoreCase("ep")))
-                .filter(AlbumsFilter::filterByRatingAndVotes)
-                .filter(this::filterByNoListensOnLastFM)
-                .toList();
+        FilterPipeline pipeline = new FilterPipeline()
+                .addLocalStage("genre and type", 50, 0.5, filterRules::acceptsGenreAndType)
+                .addLocalStage("rating and votes", 10, 0.2, filterRules::acceptsRatingAndVotes);
+
+        if (playCountSource == PlayCountSource.USER_LIBRARY) {
+            pipeline.addRemoteStage("Last.fm library", 1_000_000, 0.5, this::filterByUserLibrary);
+        } else {
+            pipeline.addRemoteStage("Last.fm lookups", 200_000_000, 0.5, this::filterByNoListensOnLastFM);
+        }
+
+        List<Album> filteredList = pipeline.apply(albums);
+        System.out.print(pipeline.report());
+        if (lastFMCache != null) {
+            System.out.println(lastFMCache);
+        }
+        System.out.println("Last.fm lookups coalesced: " + lastFMClient.getCoalescedLookups());
         return Tuple2.of(filteredList, problemAlbums);
     }
 
+    private List<Album> filterByNoListensOnLastFM(List<Album> candidates) {
+        return switch (lookupMode) {
+            case SEQUENTIAL -> candidates.stream()
+                    .filter(this::filterByNoListensOnLastFM)
+                    .toList();
+            case ASYNC -> filterByNoListensOnLastFMAsync(candidates);
+            case VIRTUAL_THREADS -> filterByNoListensOnLastFMInVirtualThreads(candidates);
+        };
+    }
+
+    // The library settles the albums it lists and the albums it certainly doesn't; only the albums that may be in it
+    // under another spelling get a per-album lookup, which is all of them when the library can't be loaded
+    private List<Album> filterByUserLibrary(List<Album> candidates) {
+        LastFMUserLibrary userLibrary;
+        try {
+            userLibrary = lastFMClient.loadUserLibrary();
+        } catch (RuntimeException e) {
+            System.out.printf("Could not load the Last.fm library, looking up every album instead: %s%n", e);
+            return filterByNoListensOnLastFM(candidates);
+        }
+
+        List<Album> unsettledCandidates = candidates.stream()
+                .filter(album -> userLibrary.getPlayCount(album.getArtists().get(0), album.getAlbum()).isEmpty()
+                        && userLibrary.mayContain(album.getArtists().get(0), album.getAlbum()))
+                .toList();
+        System.out.printf("The Last.fm library settled %d albums, looking up the other %d%n",
+                candidates.size() - unsettledCandidates.size(), unsettledCandidates.size());
+
+        Set<Album> lookedUpCandidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Album> unheardCandidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        lookedUpCandidates.addAll(unsettledCandidates);
+        unheardCandidates.addAll(filterByNoListensOnLastFM(unsettledCandidates));
+
+        return candidates.stream()
+                .filter(album -> {
+                    if (lookedUpCandidates.contains(album)) {
+                        return unheardCandidates.contains(album);
+                    }
+                    OptionalInt playCount = userLibrary.getPlayCount(album.getArtists().get(0), album.getAlbum());
+                    return playCount.orElse(0) == 0;
+                })
+                .toList();
+    }
+
+    // A sliding window of at most maxConcurrentLookups lookups is in flight, paced by the client's rate limiter;
+    // results are consumed in input order
+    private List<Album> filterByNoListensOnLastFMAsync(List<Album> candidates) {
+        Semaphore lookupPermits = new Semaphore(maxConcurrentLookups);
+        List<CompletableFuture<JsonNode>> albumInfos = new ArrayList<>(candidates.size());
+
+        for (Album album : candidates) {
+            try {
+                lookupPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+
+            CompletableFuture<JsonNode> albumInfo;
+            try {
+                albumInfo = lastFMClient.getAlbumInfoAsync(album.getArtists().get(0), album.getAlbum());
+            } catch (RuntimeException e) {
+                albumInfo = CompletableFuture.failedFuture(e);
+            }
+
+            albumInfos.add(albumInfo
+                    .whenComplete((_, _) -> lookupPermits.release())
+                    .exceptionally(t -> {
+                        System.out.printf("Last.fm lookup failed for '%s': %s%n", album.getAlbum(), t);
+                        return null;
+                    }));
+        }
+
+        List<Album> filteredList = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); ++i) {
+            if (hasNoListens(candidates.get(i), albumInfos.get(i).join())) {
+                filteredList.add(candidates.get(i));
+            }
+        }
+
+        return filteredList;
+    }
+
+    // Every lookup gets its own virtual thread, but at most maxConcurrentLookups of them talk to Last.fm at once; the
+    // verdicts are taken in input order once the lookups are done
+    private List<Album> filterByNoListensOnLastFMInVirtualThreads(List<Album> candidates) {
+        Semaphore lookupPermits = new Semaphore(maxConcurrentLookups);
+        List<Album> filteredList = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<JsonNode>> albumInfos = candidates.stream()
+                    .map(album -> executor.submit(() -> {
+                        lookupPermits.acquire();
+                        try {
+                            return lookUpAlbumInfo(album);
+                        } finally {
+                            lookupPermits.release();
+                        }
+                    }))
+                    .toList();
+
+            for (int i = 0; i < candidates.size(); ++i) {
+                if (hasNoListens(candidates.get(i), albumInfos.get(i).get())) {
+                    filteredList.add(candidates.get(i));
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+
+        return filteredList;
+    }
+
     private boolean filterByNoListensOnLastFM(Album album) {
-        JsonNode albumInfo = lastFMClient.getAlbumInfo(album.getArtists().get(0), album.getAlbum());
+        return hasNoListens(album, lookUpAlbumInfo(album));
+    }
+
+    // A failed lookup, or an open circuit because Last.fm is down, defers the album as a problem album instead of
+    // failing the run
+    private JsonNode lookUpAlbumInfo(Album album) {
+        try {
+            return lastFMClient.getAlbumInfo(album.getArtists().get(0), album.getAlbum());
+        } catch (CircuitBreakerOpenException e) {
+            System.out.printf("Deferred the Last.fm lookup for '%s': %s%n", album.getAlbum(), e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.printf("Last.fm lookup failed for '%s': %s%n", album.getAlbum(), e);
+        }
+        return null;
+    }
+
+    private boolean hasNoListens(Album album, JsonNode albumInfo) {
         JsonNode albumNode = albumInfo == null || albumInfo.isNull() || albumInfo.isMissingNode()
                 ? null
                 : albumInfo.get("album");
@@ -43,9 +257,9 @@ public class AlbumsFilter {
                 ? null
                 : albumNode.get("userplaycount");
 
-        ++processedAlbums;
-        if (processedAlbums % 10 == 0) {
-            System.out.println("Processed albums: " + processedAlbums);
+        int processed = processedAlbums.incrementAndGet();
+        if (processed % 10 == 0) {
+            System.out.println("Processed albums: " + processed);
         }
 
         if (userPlayCount == null || userPlayCount.isMissingNode() || userPlayCount.isNull()) {
@@ -53,23 +267,6 @@ public class AlbumsFilter {
             return false;
         }
 
-        try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-
         return userPlayCount.asInt(1) == 0;
     }
-
-    private static boolean filterByRatingAndVotes(Album album) {
-        return (album.getRating() >= 7.8 && album.getVotes() >= 10)
-                || (Math.abs(album.getRating() - 7.7) <= epsilon && album.getVotes() >= 12)
-                || (Math.abs(album.getRating() - 7.6) <= epsilon && album.getVotes() >= 13)
-                || (Math.abs(album.getRating() - 7.5) <= epsilon && album.getVotes() >= 15)
-                || (Math.abs(album.getRating() - 7.4) <= epsilon && album.getVotes() >= 17)
-                || (7.2 <= album.getRating() && album.getRating() <= 7.3 && album.getVotes() >= 20)
-                || (Math.abs(album.getRating() - 7.1) <= epsilon && album.getVotes() >= 23)
-                || (Math.abs(album.getRating() - 7.0) <= epsilon && album.getVotes() >= 25);
-    }
 }
@@ -1,10 +1,14 @@
 package org.schimodie.albums_to_listen_to;
 
 import org.schimodie.albums_to_listen_to.bean.Album;
+import org.schimodie.albums_to_listen_to.database.AlbumStore;
+import org.schimodie.albums_to_listen_to.database.LastFMResponseCache;
 import org.schimodie.albums_to_listen_to.database.Storage;
 import org.schimodie.albums_to_listen_to.database.StorageFileName;
+import org.schimodie.albums_to_listen_to.filter.FilterRules;
 import org.schimodie.common.data.Tuple2;
 
+import java.io.File;
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
@@ -17,8 +21,58 @@ public class Main {
         albums.forEach(System.out::println);
     }
 
+    private static void printGoodAlbums(List<Album> albums) {
+        AlbumList goodAlbums = new AlbumList(albums)
+                .sortBy(Comparator.comparingInt(Album::getVotes))
+                .sortByPriority();
+
+        List<Album> highPriorityGoodAlbums = goodAlbums.getHighPriorityAlbums();
+        printAlbums(highPriorityGoodAlbums, "Number of high priority good albums: " + highPriorityGoodAlbums.size());
+
+        List<Album> lowPriorityGoodAlbums = goodAlbums.getLowPriorityAlbums();
+        printAlbums(lowPriorityGoodAlbums, "\nNumber of low priority good albums: " + lowPriorityGoodAlbums.size());
+    }
+
+    // Only the albums that are new or changed since the last run go through the filter
+    private static void runIncrementally(Instant afterDate, AlbumsFilter.PlayCountSource playCountSource,
+            FilterRules filterRules) {
+        AlbumStore albumStore = AlbumStore.open();
+        new AlbumsDownloader("albums", afterDate).downloadInto(albumStore);
+
+        List<Album> albumsToEvaluate = albumStore.getAlbumsToEvaluate();
+        System.out.println("Albums to evaluate: " + albumsToEvaluate.size());
+
+        AlbumsFilter albumsFilter = new AlbumsFilter(albumsToEvaluate, AlbumsFilter.LookupMode.ASYNC,
+                AlbumsFilter.DEFAULT_MAX_CONCURRENT_LOOKUPS, playCountSource, filterRules, LastFMResponseCache.open());
+        Tuple2<List<Album>, List<Album>> filteredAlbums = albumsFilter.filter();
+        albumStore.recordVerdicts(albumsToEvaluate, filteredAlbums.t1(), filteredAlbums.t2());
+        albumStore.save();
+
+        printGoodAlbums(albumStore.getAcceptedAlbums());
+        printAlbums(filteredAlbums.t2(), "\nNumber of bad albums: " + filteredAlbums.t2().size());
+    }
+
+    // Thresholds can be tuned with --filter-rules <file> instead of recompiling
+    private static FilterRules loadFilterRules(List<String> args) {
+        int index = args.indexOf("--filter-rules");
+        return index >= 0 && index + 1 < args.size()
+                ? FilterRules.load(new File(args.get(index + 1)))
+                : FilterRules.defaults();
+    }
+
     public static void main(String[] args) {
         Instant afterDate = Instant.from(DT_FORMATTER.parse("2025-06-29"));
+        FilterRules filterRules = loadFilterRules(List.of(args));
+        // Play counts come from one album.getinfo lookup per album unless --user-library is given
+        AlbumsFilter.PlayCountSource playCountSource = List.of(args).contains("--user-library")
+                ? AlbumsFilter.PlayCountSource.USER_LIBRARY
+                : AlbumsFilter.PlayCountSource.ALBUM_INFO;
+
+        if (List.of(args).contains("--incremental")) {
+            runIncrementally(afterDate, playCountSource, filterRules);
+            return;
+        }
+
         Instant today = Instant.from(DT_FORMATTER.parse("2025-08-08"));
         String filteredAlbumsFileName = StorageFileName.createFileName(
                 "filtered-albums-on", today, "from", afterDate);
@@ -37,17 +91,10 @@ public class Main {
             albums = Storage.readAlbums(albumsDownloader.getFileName());
         }
 
-        AlbumsFilter albumsFilter = new AlbumsFilter(albums);
+        AlbumsFilter albumsFilter = new AlbumsFilter(albums, AlbumsFilter.LookupMode.ASYNC,
+                AlbumsFilter.DEFAULT_MAX_CONCURRENT_LOOKUPS, playCountSource, filterRules, LastFMResponseCache.open());
         Tuple2<List<Album>, List<Album>> filteredAlbums = albumsFilter.filter();
-        AlbumList goodAlbums = new AlbumList(filteredAlbums.t1())
-                .sortBy(Comparator.comparingInt(Album::getVotes))
-                .sortByPriority();
-
-        List<Album> highPriorityGoodAlbums = goodAlbums.getHighPriorityAlbums();
-        printAlbums(highPriorityGoodAlbums, "Number of high priority good albums: " + highPriorityGoodAlbums.size());
-
-        List<Album> lowPriorityGoodAlbums = goodAlbums.getLowPriorityAlbums();
-        printAlbums(lowPriorityGoodAlbums, "\nNumber of low priority good albums: " + lowPriorityGoodAlbums.size());
+        printGoodAlbums(filteredAlbums.t1());
 
         printAlbums(filteredAlbums.t2(), "\nNumber of bad albums: " + filteredAlbums.t2().size());
 
@@ -45,6 +45,10 @@ public class Album {
         return Math.floor(value * 10) / 10;
     }
 
+    public static ObjectMapper objectMapper() {
+        return OM;
+    }
+
     @Override
     @SneakyThrows
     public String toString() {
@@ -0,0 +1,7 @@
+package org.schimodie.albums_to_listen_to.bean;
+
+public record AlbumInfoKey(String artist, String album, String username) {
+    public static AlbumInfoKey of(String artist, String album, String username) {
+        return new AlbumInfoKey(artist, album, username);
+    }
+}
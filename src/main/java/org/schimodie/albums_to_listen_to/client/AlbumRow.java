@@ -0,0 +1,66 @@
+package org.schimodie.albums_to_listen_to.client;
+
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.util.List;
+import java.util.Map;
+
+record AlbumRow(int columnCount, List<Link> links, String type, String genre, String ratingText, String votesText) {
+    record Link(String href, String text) {
+    }
+
+    @SuppressWarnings("unchecked")
+    static AlbumRow fromJson(Map<String, Object> row) {
+        List<Map<String, Object>> links = (List<Map<String, Object>>) row.get("links");
+
+        return new AlbumRow(
+                ((Number) row.get("columnCount")).intValue(),
+                links.stream()
+                        .map(link -> new Link((String) link.get("href"), (String) link.get("text")))
+                        .toList(),
+                (String) row.get("type"),
+                (String) row.get("genre"),
+                (String) row.get("rating"),
+                (String) row.get("votes"));
+    }
+
+    Album toAlbum() {
+        if (columnCount < 8) {
+            throw new RuntimeException("Invalid album row structure");
+        }
+
+        List<Link> artistLinks = links.stream()
+                .filter(link -> link.href() != null && link.href().contains("band_id"))
+                .toList();
+        Link albumLink = links.stream()
+                .filter(link -> link.href() != null && link.href().contains("album_id"))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Couldn't find the album"));
+
+        double rating = 0.0;
+        int numVotes = 0;
+
+        try {
+            if (ratingText != null) {
+                rating = Double.parseDouble(ratingText);
+            }
+        } catch (NumberFormatException _) {
+        }
+
+        try {
+            numVotes = Integer.parseInt(votesText);
+        } catch (NumberFormatException _) {
+        }
+
+        return Album.builder()
+                .album(albumLink.text())
+                .artists(artistLinks.stream().map(Link::text).toList())
+                .albumId(albumLink.href().split("=")[1])
+                .artistIds(artistLinks.stream().map(link -> link.href().split("=")[1]).toList())
+                .genre(genre)
+                .type(type)
+                .rating(rating)
+                .votes(numVotes)
+                .build();
+    }
+}
@@ -1,9 +1,20 @@
 package org.schimodie.albums_to_listen_to.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.xml.bind.DatatypeConverter;
+import org.schimodie.albums_to_listen_to.bean.AlbumInfoKey;
 import org.schimodie.albums_to_listen_to.bean.Pair;
+import org.schimodie.albums_to_listen_to.database.LastFMResponseCache;
+import org.schimodie.common.utils.AsyncRetryable;
+import org.schimodie.common.utils.CircuitBreaker;
+import org.schimodie.common.utils.Jitter;
+import org.schimodie.common.utils.JitteredRetryable;
+import org.schimodie.common.utils.RateLimiter;
+import org.schimodie.common.utils.RetryBudget;
+import org.schimodie.common.utils.Retryable;
+import org.schimodie.common.utils.SingleFlightCache;
 
 import java.io.IOException;
 import java.net.URI;
@@ -14,10 +25,14 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 public class LastFMClient {
@@ -27,12 +42,59 @@ public class LastFMClient {
     private static final MessageDigest MD5_HASHING_ALGORITHM = LastFMClient.getMd5HashingAlgorithm();
     private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // Last.fm allows 5 requests per second per API key, averaged over a longer window, so short bursts are fine
+    private static final RateLimiter RATE_LIMITER = new RateLimiter(5.0, 5);
+    private static final int DEFAULT_RECENT_ALBUM_INFOS = 4096;
+    private static final int ALBUM_NOT_FOUND_ERROR = 6;
+    private static final int TOP_ALBUMS_PAGE_SIZE = 1000;
+    // Shared by all lookups, so an outage costs at most a handful of extra requests instead of one per album
+    private static final RetryBudget RETRY_BUDGET = new RetryBudget(20, 0.1);
+    private static final Retryable<JsonNode> RETRY_STRATEGY = JitteredRetryable.<JsonNode>builder()
+            .maxAttempts(4)
+            .baseDelay(Duration.ofMillis(500))
+            .maxDelay(Duration.ofSeconds(10))
+            .maxElapsedTime(Duration.ofSeconds(30))
+            .jitter(Jitter.FULL)
+            .retryOn(LastFMClient::isRetriable)
+            .retryBudget(RETRY_BUDGET)
+            .build();
+    private static final AsyncRetryable<JsonNode> ASYNC_RETRY_STRATEGY = AsyncRetryable.<JsonNode>builder()
+            .maxRetries(4)
+            .baseTimeInMillis(500)
+            .maxDelay(Duration.ofSeconds(10))
+            .jitter(Jitter.FULL)
+            .retryOn(LastFMClient::isRetriable)
+            .retryBudget(RETRY_BUDGET)
+            .build();
+    // While Last.fm is degraded, lookups fail fast and the albums are deferred to a later run
+    private static final CircuitBreaker CIRCUIT_BREAKER = CircuitBreaker.builder()
+            .name("Last.fm circuit breaker")
+            .windowSize(50)
+            .minimumCalls(20)
+            .openDuration(Duration.ofMinutes(1))
+            .recordFailureOn(t -> t instanceof IOException)
+            .build();
 
     private final String authToken;
+    private final LastFMResponseCache cache;
+    private final SingleFlightCache<AlbumInfoKey, JsonNode> albumInfos;
 
     public LastFMClient() {
+        this(null);
+    }
+
+    public LastFMClient(LastFMResponseCache cache) {
+        this(cache, DEFAULT_RECENT_ALBUM_INFOS);
+    }
+
+    // Repeated and concurrent lookups of the same album share a single request, and responses are kept in memory
+    // for the rest of the run; "Album not found" errors are kept too, since asking again won't change the answer
+    public LastFMClient(LastFMResponseCache cache, int recentAlbumInfos) {
         // authToken = getJsonResponse(makeParameters("auth.gettoken")).get("token").asText();
         authToken = "";
+        this.cache = cache;
+        this.albumInfos = new SingleFlightCache<>(recentAlbumInfos,
+                albumInfo -> albumInfo.has("album") || albumInfo.path("error").asInt() == ALBUM_NOT_FOUND_ERROR);
     }
 
     public JsonNode getAlbumInfo(String artist, String album) {
@@ -40,28 +102,129 @@ public class LastFMClient {
     }
 
     public JsonNode getAlbumInfo(String artist, String album, String username) {
+        AlbumInfoKey key = AlbumInfoKey.of(artist, album, username);
+        return albumInfos.get(key, () -> loadAlbumInfo(key));
+    }
+
+    public CompletableFuture<JsonNode> getAlbumInfoAsync(String artist, String album) {
+        return getAlbumInfoAsync(artist, album, "Schimodie");
+    }
+
+    public CompletableFuture<JsonNode> getAlbumInfoAsync(String artist, String album, String username) {
+        AlbumInfoKey key = AlbumInfoKey.of(artist, album, username);
+        return albumInfos.getAsync(key, () -> loadAlbumInfoAsync(key));
+    }
+
+    public LastFMUserLibrary loadUserLibrary() {
+        return loadUserLibrary("Schimodie");
+    }
+
+    // A handful of paged requests instead of one album.getinfo request per album
+    public LastFMUserLibrary loadUserLibrary(String username) {
+        return LastFMUserLibrary.load(page -> getJsonResponse(makeParameters("user.gettopalbums",
+                Pair.encodedOf("user", username), Pair.of("period", "overall"),
+                Pair.of("limit", String.valueOf(TOP_ALBUMS_PAGE_SIZE)), Pair.of("page", String.valueOf(page)))));
+    }
+
+    public int getCoalescedLookups() {
+        return albumInfos.getCoalescedRequests();
+    }
+
+    private JsonNode loadAlbumInfo(AlbumInfoKey key) {
+        if (cache == null) {
+            return fetchAlbumInfo(key.artist(), key.album(), key.username());
+        }
+
+        return cache.get(key).orElseGet(() -> {
+            JsonNode albumInfo = fetchAlbumInfo(key.artist(), key.album(), key.username());
+            if (albumInfo != null && albumInfo.has("album")) {
+                cache.put(key, albumInfo);
+            }
+            return albumInfo;
+        });
+    }
+
+    private CompletableFuture<JsonNode> loadAlbumInfoAsync(AlbumInfoKey key) {
+        List<Pair> parameters = makeAlbumInfoParameters(key.artist(), key.album(), key.username());
+        if (cache == null) {
+            return getJsonResponseAsync(parameters);
+        }
+
+        Optional<JsonNode> cachedAlbumInfo = cache.get(key);
+        if (cachedAlbumInfo.isPresent()) {
+            return CompletableFuture.completedFuture(cachedAlbumInfo.get());
+        }
+
+        return getJsonResponseAsync(parameters)
+                .thenApply(albumInfo -> {
+                    if (albumInfo != null && albumInfo.has("album")) {
+                        cache.put(key, albumInfo);
+                    }
+                    return albumInfo;
+                });
+    }
+
+    private static JsonNode fetchAlbumInfo(String artist, String album, String username) {
+        return getJsonResponse(makeAlbumInfoParameters(artist, album, username));
+    }
+
+    private static List<Pair> makeAlbumInfoParameters(String artist, String album, String username) {
         if (username == null) {
-            return getJsonResponse(makeParameters("album.getinfo",
-                    Pair.encodedOf("artist", artist), Pair.encodedOf("album", album)));
+            return makeParameters("album.getinfo", Pair.encodedOf("artist", artist), Pair.encodedOf("album", album));
         }
-        return getJsonResponse(makeParameters("album.getinfo",
-                Pair.encodedOf("artist", artist), Pair.encodedOf("album", album), Pair.encodedOf("username", username)));
+        return makeParameters("album.getinfo",
+                Pair.encodedOf("artist", artist), Pair.encodedOf("album", album), Pair.encodedOf("username", username));
     }
 
     private static JsonNode getJsonResponse(List<Pair> parameters) {
+        HttpRequest request = createRequest(parameters);
+
+        return CIRCUIT_BREAKER.decorate(RETRY_STRATEGY).retry(() -> {
+            RATE_LIMITER.acquire();
+            return readJsonResponse(HTTP_CLIENT.send(
+                    request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)));
+        });
+    }
+
+    // Every attempt waits for its own rate limiter permit, and the waits between attempts don't hold a thread
+    private static CompletableFuture<JsonNode> getJsonResponseAsync(List<Pair> parameters) {
+        HttpRequest request = createRequest(parameters);
+
+        return ASYNC_RETRY_STRATEGY.retry(() -> RATE_LIMITER.acquireAsync()
+                .thenCompose(_ -> CIRCUIT_BREAKER.callAsync(() -> HTTP_CLIENT.sendAsync(
+                                request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                        .thenApply(response -> {
+                            try {
+                                return readJsonResponse(response);
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            }
+                        }))));
+    }
+
+    // A response that isn't valid JSON won't become valid by asking again
+    static boolean isRetriable(Throwable t) {
+        return t instanceof IOException && !(t instanceof JsonProcessingException);
+    }
+
+    private static JsonNode readJsonResponse(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() == 429 || response.statusCode() >= 500) {
+            throw new IOException(String.format("Unexpected status code %d", response.statusCode()));
+        }
+        return OBJECT_MAPPER.readTree(response.body());
+    }
+
+    private static HttpRequest createRequest(List<Pair> parameters) {
         try {
             String params = parameters.stream()
                     .map(parameter -> "&" + parameter.first() + '=' + parameter.second())
                     .collect(Collectors.joining());
-            HttpRequest request = HttpRequest.newBuilder()
+            return HttpRequest.newBuilder()
                     .uri(new URI(ROOT_URL + "?format=json" + params))
                     .header("User-Agent", "robot/schimodie")
                     .GET()
                     .build();
-            HttpResponse<String> response = HTTP_CLIENT.send(
-                    request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-            return OBJECT_MAPPER.readTree(response.body());
-        } catch (IOException | InterruptedException | URISyntaxException e) {
+        } catch (URISyntaxException e) {
             throw new RuntimeException(e);
         }
     }
@@ -0,0 +1,108 @@
+package org.schimodie.albums_to_listen_to.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+
+// Play counts of every album in a user's library, fetched page by page from user.getTopAlbums and indexed by
+// normalised (artist, album). The library lists every album with plays, so a miss in a fully loaded library means no
+// plays, unless the names only differ in punctuation or a bracketed suffix from an album of the library
+public class LastFMUserLibrary {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern BRACKETED_SUFFIX = Pattern.compile("\\([^)]*\\)|\\[[^\\]]*\\]");
+    private static final Pattern PUNCTUATION = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, Integer> playCounts;
+    private final Set<String> similarityKeys;
+    private boolean isComplete;
+
+    LastFMUserLibrary() {
+        this.playCounts = new HashMap<>();
+        this.similarityKeys = new HashSet<>();
+        this.isComplete = true;
+    }
+
+    static LastFMUserLibrary load(IntFunction<JsonNode> topAlbumsPages) {
+        LastFMUserLibrary userLibrary = new LastFMUserLibrary();
+        int totalPages = 1;
+        int page = 1;
+
+        for (; page <= totalPages; ++page) {
+            JsonNode response = topAlbumsPages.apply(page);
+            int responseTotalPages = userLibrary.addTopAlbums(response);
+
+            // An error part way through leaves only part of the library, whose missing albums get looked up one by one
+            if (responseTotalPages == 0 && (page < totalPages || response != null && response.has("error"))) {
+                System.out.printf("Stopped loading the Last.fm library at page %d of %d: %s%n", page, totalPages,
+                        response == null ? "no response" : response.path("message").asText("no albums"));
+                userLibrary.isComplete = false;
+            }
+            totalPages = responseTotalPages;
+        }
+
+        System.out.printf("Loaded %d albums from the Last.fm library in %d pages%n", userLibrary.size(), page - 1);
+        return userLibrary;
+    }
+
+    public OptionalInt getPlayCount(String artist, String album) {
+        Integer playCount = playCounts.get(createKey(artist, album));
+        return playCount == null ? OptionalInt.empty() : OptionalInt.of(playCount);
+    }
+
+    // True when the album is missing from the library but may still be in it under another spelling, or when the
+    // library couldn't be loaded completely
+    public boolean mayContain(String artist, String album) {
+        return !isComplete || similarityKeys.contains(createSimilarityKey(artist, album));
+    }
+
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    public int size() {
+        return playCounts.size();
+    }
+
+    // Returns the total number of pages, or 0 when the response has no albums to stop paging
+    int addTopAlbums(JsonNode response) {
+        JsonNode topAlbums = response == null ? null : response.get("topalbums");
+        if (topAlbums == null || !topAlbums.path("album").isArray() || topAlbums.path("album").isEmpty()) {
+            return 0;
+        }
+
+        for (JsonNode album : topAlbums.get("album")) {
+            String artistName = album.path("artist").path("name").asText();
+            String albumName = album.path("name").asText();
+            playCounts.merge(createKey(artistName, albumName), album.path("playcount").asInt(), Integer::sum);
+            similarityKeys.add(createSimilarityKey(artistName, albumName));
+        }
+
+        return topAlbums.path("@attr").path("totalPages").asInt(1);
+    }
+
+    static String normalise(String name) {
+        String normalisedName = Normalizer.normalize(name == null ? "" : name, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(normalisedName).replaceAll(" ").strip();
+    }
+
+    private static String createKey(String artist, String album) {
+        return normalise(artist) + '\u0000' + normalise(album);
+    }
+
+    private static String createSimilarityKey(String artist, String album) {
+        return simplify(artist) + '\u0000' + simplify(album);
+    }
+
+    private static String simplify(String name) {
+        return PUNCTUATION.matcher(BRACKETED_SUFFIX.matcher(normalise(name)).replaceAll("")).replaceAll("");
+    }
+}
@@ -6,24 +6,66 @@ import com.microsoft.playwright.BrowserType;
 import com.microsoft.playwright.ElementHandle;
 import com.microsoft.playwright.Page;
 import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.PlaywrightException;
 import org.schimodie.albums_to_listen_to.bean.Album;
-import org.schimodie.common.utils.ExponentialBackoffRetryable;
+import org.schimodie.common.utils.CircuitBreaker;
+import org.schimodie.common.utils.Jitter;
+import org.schimodie.common.utils.JitteredRetryable;
+import org.schimodie.common.utils.RateLimiter;
+import org.schimodie.common.utils.RetryBudget;
 import org.schimodie.common.utils.Retryable;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.ChronoField;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class MetalstormClient implements MetalstormScraper {
+    public static final int DEFAULT_CONCURRENCY = 1;
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 10.0;
 
-public class MetalstormClient implements AutoCloseable {
     static final String ALBUM_DATE_SELECTOR =
             ".right-col > table:nth-child(2) > tbody:nth-child(1) > tr:nth-child(1) > td:nth-child(2)";
     static final String ALBUM_ROWS_SELECTOR = ".table > tbody:nth-child(2) > tr";
+    // Extracts every row in a single browser round-trip instead of one round-trip per cell and link
+    static final String EXTRACT_ALBUM_ROWS_SCRIPT = """
+            rows => rows.map(row => {
+                const columns = row.querySelectorAll('td');
+                const text = index => index < columns.length ? columns[index].innerText : null;
+                const ratingLink = columns.length > 6 ? columns[6].querySelector('a') : null;
+                return {
+                    columnCount: columns.length,
+                    links: columns.length > 2
+                        ? Array.from(columns[2].querySelectorAll('a'))
+                            .map(link => ({href: link.getAttribute('href'), text: link.innerText}))
+                        : [],
+                    type: text(4),
+                    genre: text(5),
+                    rating: ratingLink ? ratingLink.innerText : null,
+                    votes: text(7)
+                };
+            })
+            """;
+    static final String USER_AGENT = "Mozilla/5.0 (X11; Linux x86_64; rv:139.0) Gecko/20100101 Firefox/139.0";
+    static final String ROOT_URL = "https://metalstorm.net/";
+    static final String FILTER_PATH = "bands/albums.php?filter_show_invisible=1&show_invisible_submit=1";
+    static final String ALBUMS_PATH = "bands/albums.php?page=";
+    static final String ALBUM_PATH = "bands/album.php?album_id=";
+    static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("d MMMM yyyy")
+            .parseDefaulting(ChronoField.NANO_OF_DAY, 0)
+            .toFormatter()
+            .withZone(ZoneOffset.UTC);
 
-    private static final Retryable<String> RETRY_STRATEGY = new ExponentialBackoffRetryable<>(5, 1000);
+    // Navigation timeouts and crashed pages are worth retrying; parse errors would only fail again
+    private static final RetryBudget RETRY_BUDGET = new RetryBudget(10, 0.1);
     private static final Map<String, String> DEFAULT_HEADERS = Map.ofEntries(
             Map.entry("Connection", "keep-alive"),
             Map.entry("DNT", "1"),
@@ -33,159 +75,183 @@ public class MetalstormClient implements AutoCloseable {
             Map.entry("Accept-Language", "en-US,en;q=0.5"),
             Map.entry("TE", "trailers"),
             Map.entry("Upgrade-Insecure-Requests", "1"));
-    private static final String USER_AGENT = "Mozilla/5.0 (X11; Linux x86_64; rv:139.0) Gecko/20100101 Firefox/139.0";
-    private static final String ROOT_URL = "https://metalstorm.net/";
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
-            .appendPattern("d MMMM yyyy")
-            .parseDefaulting(ChronoField.NANO_OF_DAY, 0)
-            .toFormatter()
-            .withZone(ZoneOffset.UTC);
 
-    private final Playwright playwright;
-    private final Browser browser;
-    private final BrowserContext context;
-    private boolean hasFilterBeenSet = false;
+    private final List<Session> sessions;
+    private final BlockingQueue<Session> idleSessions;
+    private final RateLimiter rateLimiter;
+    private final Retryable<List<Album>> albumsRetryStrategy;
+    private final Retryable<Instant> albumDateRetryStrategy;
 
     public MetalstormClient() {
-        this.playwright = Playwright.create();
-        this.browser = playwright.firefox().launch(new BrowserType.LaunchOptions().setHeadless(true));
-        this.context = browser.newContext(
-                new Browser.NewContextOptions().setUserAgent(USER_AGENT).setExtraHTTPHeaders(DEFAULT_HEADERS));
+        this(DEFAULT_CONCURRENCY, DEFAULT_REQUESTS_PER_SECOND);
     }
 
-    private static Album createAlbum(ElementHandle albumRow) {
-        List<ElementHandle> albumColumns = albumRow.querySelectorAll("td");
-
-        if (albumColumns.size() < 8) {
-            throw new RuntimeException("Invalid album row structure");
+    public MetalstormClient(int concurrency, double requestsPerSecond) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("'concurrency' should be at least 1");
         }
 
-        ElementHandle artistAlbumColumn = albumColumns.get(2);
-        List<ElementHandle> artistAndAlbumLinks = artistAlbumColumn.querySelectorAll("a");
-
-        List<String> artists = artistAndAlbumLinks.stream()
-                .filter(el -> {
-                    String href = el.getAttribute("href");
-                    return href != null && href.contains("band_id");
-                })
-                .map(ElementHandle::innerText)
-                .toList();
+        this.sessions = new ArrayList<>(concurrency);
+        this.idleSessions = new ArrayBlockingQueue<>(concurrency);
+        this.rateLimiter = new RateLimiter(requestsPerSecond);
 
-        List<String> artistIds = artistAndAlbumLinks.stream()
-                .filter(el -> {
-                    String href = el.getAttribute("href");
-                    return href != null && href.contains("band_id");
-                })
-                .map(el -> {
-                    String href = el.getAttribute("href");
-                    return href.split("=")[1];
-                })
-                .toList();
-
-        String album = artistAndAlbumLinks.stream()
-                .filter(el -> {
-                    String href = el.getAttribute("href");
-                    return href != null && href.contains("album_id");
-                })
-                .map(ElementHandle::innerText)
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Couldn't find the album"));
-
-        String albumId = artistAndAlbumLinks.stream()
-                .filter(el -> {
-                    String href = el.getAttribute("href");
-                    return href != null && href.contains("album_id");
-                })
-                .map(el -> {
-                    String href = el.getAttribute("href");
-                    return href.split("=")[1];
-                })
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Couldn't find the albumId"));
-
-        String type = albumColumns.get(4).innerText();
-        String genre = albumColumns.get(5).innerText();
-
-        double rating = 0.0;
-        int numVotes = 0;
+        // Once Metalstorm keeps timing out, the download stops instead of navigating page after page into the void
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                .name("Metalstorm circuit breaker")
+                .recordFailureOn(t -> t instanceof PlaywrightException)
+                .build();
+        this.albumsRetryStrategy = circuitBreaker.decorate(createRetryStrategy());
+        this.albumDateRetryStrategy = circuitBreaker.decorate(createRetryStrategy());
 
         try {
-            List<ElementHandle> ratingElements = albumColumns.get(6).querySelectorAll("a");
-            if (!ratingElements.isEmpty()) {
-                String ratingText = ratingElements.getFirst().innerText();
-                rating = Double.parseDouble(ratingText);
+            for (int i = 0; i < concurrency; ++i) {
+                Session session = new Session();
+                sessions.add(session);
+                idleSessions.add(session);
             }
-        } catch (NumberFormatException _) {
+        } catch (RuntimeException e) {
+            close();
+            throw e;
         }
+    }
+
+    private static <O> Retryable<O> createRetryStrategy() {
+        return JitteredRetryable.<O>builder()
+                .maxAttempts(5)
+                .baseDelay(Duration.ofSeconds(1))
+                .maxDelay(Duration.ofSeconds(30))
+                .maxElapsedTime(Duration.ofMinutes(2))
+                .jitter(Jitter.DECORRELATED)
+                .retryOn(t -> t instanceof PlaywrightException)
+                .retryBudget(RETRY_BUDGET)
+                .build();
+    }
+
+    @Override
+    public List<Album> getAlbums(int pageNumber) {
+        Session session = borrowSession();
 
         try {
-            String votesText = albumColumns.get(7).innerText();
-            numVotes = Integer.parseInt(votesText);
-        } catch (NumberFormatException _) {
+            return albumsRetryStrategy.retry(() -> fetchAlbums(session, pageNumber));
+        } finally {
+            idleSessions.add(session);
         }
+    }
 
-        return Album.builder()
-                .album(album)
-                .artists(artists)
-                .albumId(albumId)
-                .artistIds(artistIds)
-                .genre(genre)
-                .type(type)
-                .rating(rating)
-                .votes(numVotes)
-                .build();
+    @Override
+    public Instant getAlbumDate(String albumId) {
+        Session session = borrowSession();
+
+        try {
+            return albumDateRetryStrategy.retry(() -> fetchAlbumDate(session, albumId));
+        } finally {
+            idleSessions.add(session);
+        }
     }
 
-    public List<Album> getAlbums(int pageNumber) {
-        try (Page page = context.newPage()) {
-            if (!hasFilterBeenSet) {
-                page.navigate(ROOT_URL + "bands/albums.php?filter_show_invisible=1&show_invisible_submit=1");
-                page.waitForLoadState();
-                hasFilterBeenSet = true;
-            }
+    private List<Album> fetchAlbums(Session session, int pageNumber) {
+        Page page = session.page();
 
-            page.navigate(ROOT_URL + "bands/albums.php?page=" + pageNumber);
-            page.waitForLoadState();
+        if (!session.hasFilterBeenSet) {
+            navigate(page, ROOT_URL + FILTER_PATH);
+            session.hasFilterBeenSet = true;
+        }
 
-            List<ElementHandle> albumRows = page.querySelectorAll(ALBUM_ROWS_SELECTOR);
-            List<Album> albums = albumRows.stream()
-                    .map(MetalstormClient::createAlbum)
-                    .toList();
+        navigate(page, ROOT_URL + ALBUMS_PATH + pageNumber);
 
-            System.out.printf("Fetched %d albums from page %d of Metalstorm%n", albums.size(), pageNumber);
-            Thread.sleep(100);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> albumRows =
+                (List<Map<String, Object>>) page.evalOnSelectorAll(ALBUM_ROWS_SELECTOR, EXTRACT_ALBUM_ROWS_SCRIPT);
+        List<Album> albums = albumRows.stream()
+                .map(AlbumRow::fromJson)
+                .map(AlbumRow::toAlbum)
+                .toList();
 
-            return albums;
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        System.out.printf("Fetched %d albums from page %d of Metalstorm%n", albums.size(), pageNumber);
+
+        return albums;
+    }
+
+    private Instant fetchAlbumDate(Session session, String albumId) {
+        Page page = session.page();
+        navigate(page, ROOT_URL + ALBUM_PATH + albumId);
+
+        ElementHandle dateElement = page.querySelector(ALBUM_DATE_SELECTOR);
+        if (dateElement == null) {
+            throw new RuntimeException("Couldn't parse album date");
         }
+        return Instant.from(DATE_TIME_FORMATTER.parse(dateElement.innerText()));
     }
 
-    public Instant getAlbumDate(String albumId) {
-        try (Page page = context.newPage()) {
-            page.navigate(ROOT_URL + "bands/album.php?album_id=" + albumId);
-            page.waitForLoadState();
-            
-            ElementHandle dateElement = page.querySelector(ALBUM_DATE_SELECTOR);
-            if (dateElement == null) {
-                throw new RuntimeException("Couldn't parse album date");
-            }
-            return Instant.from(DATE_TIME_FORMATTER.parse(dateElement.innerText()));
+    private void navigate(Page page, String url) {
+        rateLimiter.acquire();
+        page.navigate(url);
+        page.waitForLoadState();
+    }
+
+    private Session borrowSession() {
+        try {
+            return idleSessions.take();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
         }
     }
 
     @Override
     public void close() {
-        if (context != null) {
-            context.close();
+        sessions.forEach(Session::close);
+    }
+
+    // Playwright objects are not thread safe, so every session owns its own driver and is used by one thread at a time
+    private static final class Session implements AutoCloseable {
+        private final Playwright playwright;
+        private final Browser browser;
+        private final BrowserContext context;
+        private Page page;
+        private boolean hasFilterBeenSet = false;
+
+        private Session() {
+            this.playwright = Playwright.create();
+
+            Browser launchedBrowser = null;
+            try {
+                launchedBrowser = playwright.firefox().launch(new BrowserType.LaunchOptions().setHeadless(true));
+                this.browser = launchedBrowser;
+                this.context = browser.newContext(
+                        new Browser.NewContextOptions().setUserAgent(USER_AGENT).setExtraHTTPHeaders(DEFAULT_HEADERS));
+            } catch (RuntimeException e) {
+                if (launchedBrowser != null) {
+                    launchedBrowser.close();
+                }
+                playwright.close();
+                throw e;
+            }
         }
 
-        if (browser != null) {
-            browser.close();
+        private Page page() {
+            if (page == null || page.isClosed()) {
+                page = context.newPage();
+            }
+            return page;
         }
 
-        if (playwright != null) {
-            playwright.close();
+        @Override
+        public void close() {
+            if (page != null) {
+                page.close();
+            }
+
+            if (context != null) {
+                context.close();
+            }
+
+            if (browser != null) {
+                browser.close();
+            }
+
+            if (playwright != null) {
+                playwright.close();
+            }
         }
     }
 }
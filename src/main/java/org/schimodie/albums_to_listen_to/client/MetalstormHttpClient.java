@@ -0,0 +1,170 @@
+package org.schimodie.albums_to_listen_to.client;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.schimodie.albums_to_listen_to.bean.Album;
+import org.schimodie.common.utils.CircuitBreaker;
+import org.schimodie.common.utils.Jitter;
+import org.schimodie.common.utils.JitteredRetryable;
+import org.schimodie.common.utils.RateLimiter;
+import org.schimodie.common.utils.RetryBudget;
+import org.schimodie.common.utils.Retryable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.ALBUMS_PATH;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.ALBUM_DATE_SELECTOR;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.ALBUM_PATH;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.ALBUM_ROWS_SELECTOR;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.DATE_TIME_FORMATTER;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.DEFAULT_REQUESTS_PER_SECOND;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.FILTER_PATH;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.ROOT_URL;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.USER_AGENT;
+
+public class MetalstormHttpClient implements MetalstormScraper {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // Connection failures, throttling and server errors are surfaced as IOExceptions and retried
+    private static final Retryable<Document> RETRY_STRATEGY = JitteredRetryable.<Document>builder()
+            .maxAttempts(5)
+            .baseDelay(Duration.ofSeconds(1))
+            .maxDelay(Duration.ofSeconds(30))
+            .maxElapsedTime(Duration.ofMinutes(2))
+            .jitter(Jitter.DECORRELATED)
+            .retryOn(t -> t instanceof IOException)
+            .retryBudget(new RetryBudget(10, 0.1))
+            .build();
+
+    private final HttpClient httpClient;
+    private final RateLimiter rateLimiter;
+    private final Retryable<Document> retryStrategy;
+    private volatile boolean hasFilterBeenSet = false;
+
+    public MetalstormHttpClient() {
+        this(DEFAULT_REQUESTS_PER_SECOND);
+    }
+
+    public MetalstormHttpClient(double requestsPerSecond) {
+        this.httpClient = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager(null, CookiePolicy.ACCEPT_ALL))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.rateLimiter = new RateLimiter(requestsPerSecond);
+        this.retryStrategy = CircuitBreaker.builder()
+                .name("Metalstorm circuit breaker")
+                .recordFailureOn(t -> t instanceof IOException)
+                .build()
+                .decorate(RETRY_STRATEGY);
+    }
+
+    static List<Album> parseAlbums(Document document) {
+        return document.select(ALBUM_ROWS_SELECTOR).stream()
+                .map(MetalstormHttpClient::createAlbumRow)
+                .map(AlbumRow::toAlbum)
+                .toList();
+    }
+
+    static Instant parseAlbumDate(Document document) {
+        Element dateElement = document.selectFirst(ALBUM_DATE_SELECTOR);
+        if (dateElement == null) {
+            throw new RuntimeException("Couldn't parse album date");
+        }
+        return Instant.from(DATE_TIME_FORMATTER.parse(dateElement.text()));
+    }
+
+    private static AlbumRow createAlbumRow(Element albumRow) {
+        Elements albumColumns = albumRow.select("td");
+        String[] texts = new String[8];
+
+        for (int i = 0; i < Math.min(albumColumns.size(), texts.length); ++i) {
+            texts[i] = albumColumns.get(i).text();
+        }
+
+        List<AlbumRow.Link> links = albumColumns.size() > 2
+                ? albumColumns.get(2).select("a").stream()
+                        .map(link -> new AlbumRow.Link(link.attr("href"), link.text()))
+                        .toList()
+                : List.of();
+        Element ratingLink = albumColumns.size() > 6 ? albumColumns.get(6).selectFirst("a") : null;
+
+        return new AlbumRow(albumColumns.size(), links, texts[4], texts[5],
+                ratingLink != null ? ratingLink.text() : null, texts[7]);
+    }
+
+    @Override
+    public List<Album> getAlbums(int pageNumber) {
+        setFilter();
+
+        List<Album> albums = parseAlbums(fetch(ALBUMS_PATH + pageNumber));
+        System.out.printf("Fetched %d albums from page %d of Metalstorm%n", albums.size(), pageNumber);
+
+        return albums;
+    }
+
+    @Override
+    public Instant getAlbumDate(String albumId) {
+        return parseAlbumDate(fetch(ALBUM_PATH + albumId));
+    }
+
+    // The filter is stored in the session cookie, which the cookie manager then sends along with every request
+    private synchronized void setFilter() {
+        if (!hasFilterBeenSet) {
+            fetch(FILTER_PATH);
+            hasFilterBeenSet = true;
+        }
+    }
+
+    private Document fetch(String path) {
+        return retryStrategy.retry(() -> fetchOnce(path));
+    }
+
+    private Document fetchOnce(String path) throws IOException, InterruptedException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI(ROOT_URL + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("User-Agent", USER_AGENT)
+                    .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                    .header("Accept-Language", "en-US,en;q=0.5")
+                    .header("DNT", "1")
+                    .GET()
+                    .build();
+
+            rateLimiter.acquire();
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 429 || response.statusCode() >= 500) {
+                    throw new IOException(
+                            String.format("Unexpected status code %d for '%s'", response.statusCode(), path));
+                }
+                if (response.statusCode() != 200) {
+                    throw new RuntimeException(
+                            String.format("Unexpected status code %d for '%s'", response.statusCode(), path));
+                }
+                return Jsoup.parse(body, null, ROOT_URL + path);
+            }
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+}
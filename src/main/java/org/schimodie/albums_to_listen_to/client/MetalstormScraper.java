@@ -0,0 +1,27 @@
+package org.schimodie.albums_to_listen_to.client;
+
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MetalstormScraper extends AutoCloseable {
+    enum Engine {
+        PLAYWRIGHT,
+        HTTP
+    }
+
+    List<Album> getAlbums(int pageNumber);
+
+    Instant getAlbumDate(String albumId);
+
+    @Override
+    void close();
+
+    static MetalstormScraper create(Engine engine, int concurrency, double requestsPerSecond) {
+        return switch (engine) {
+            case PLAYWRIGHT -> new MetalstormClient(concurrency, requestsPerSecond);
+            case HTTP -> new MetalstormHttpClient(requestsPerSecond);
+        };
+    }
+}
@@ -0,0 +1,235 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+// A JSON-lines albums file plus an index file holding each album's id, byte offset and length, so single albums
+// and ranges can be parsed straight out of the memory-mapped file without reading everything before them
+public class AlbumArchive {
+    static final String INDEX_FILE_EXTENSION = ".idx";
+
+    private static final ObjectReader ALBUM_READER = Album.objectMapper().readerFor(Album.class);
+
+    private record Entry(String albumId, int offset, int length, int checksum) {
+    }
+
+    private final File indexFile;
+    private final MappedByteBuffer albumsBuffer;
+    private final List<Entry> entries;
+    private final long albumsChecksum;
+    private final Map<String, Entry> entriesByAlbumId;
+
+    private AlbumArchive(File indexFile, MappedByteBuffer albumsBuffer, List<Entry> entries, long albumsChecksum) {
+        this.indexFile = indexFile;
+        this.albumsBuffer = albumsBuffer;
+        this.entries = entries;
+        this.albumsChecksum = albumsChecksum;
+        this.entriesByAlbumId = new HashMap<>();
+
+        for (Entry entry : entries) {
+            entriesByAlbumId.putIfAbsent(entry.albumId(), entry);
+        }
+    }
+
+    static void write(List<Album> albums, File albumsFile) {
+        if (StorageFormat.fromFileName(albumsFile.getName()) != StorageFormat.JSON_LINES) {
+            throw new RuntimeException("Archives can only be written as JSON lines");
+        }
+
+        // Each file is replaced atomically, but not the pair; the index holds the checksum of every album and of the
+        // whole albums file, so an index left next to another albums file by a crash between the two renames is
+        // caught without reading more than the albums that are asked for
+        Storage.writeAtomically(indexFile(albumsFile), indexStream -> Storage.writeAtomically(albumsFile,
+                albumsStream -> {
+                    ChecksumOutputStream checksumStream = new ChecksumOutputStream(albumsStream);
+                    List<Long> offsets = new ArrayList<>(albums.size());
+
+                    try (JsonLinesAlbumWriter writer = new JsonLinesAlbumWriter(checksumStream);
+                         DataOutputStream index = new DataOutputStream(new BufferedOutputStream(indexStream))) {
+                        for (Album album : albums) {
+                            offsets.add(writer.position());
+                            writer.write(album);
+                            checksumStream.endEntryAt(writer.position());
+                        }
+                        writer.flush();
+
+                        index.writeInt(albums.size());
+                        for (int i = 0; i < albums.size(); ++i) {
+                            long end = i + 1 < albums.size() ? offsets.get(i + 1) : writer.position();
+                            index.writeUTF(albums.get(i).getAlbumId() != null ? albums.get(i).getAlbumId() : "");
+                            index.writeLong(offsets.get(i));
+                            index.writeInt((int) (end - offsets.get(i)));
+                            index.writeInt(checksumStream.entryChecksums.get(i));
+                        }
+                        index.writeLong(writer.position());
+                        index.writeLong(checksumStream.fileChecksum.getValue());
+                    }
+                }));
+    }
+
+    static AlbumArchive open(File albumsFile) {
+        File indexFile = indexFile(albumsFile);
+        if (!indexFile.exists()) {
+            throw new RuntimeException(String.format("Index file '%s' does not exist", indexFile.getAbsolutePath()));
+        }
+
+        try (FileChannel channel = FileChannel.open(albumsFile.toPath(), StandardOpenOption.READ);
+             DataInputStream index = new DataInputStream(new BufferedInputStream(
+                     Files.newInputStream(indexFile.toPath())))) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new RuntimeException(
+                        String.format("File '%s' is too large to be mapped", albumsFile.getAbsolutePath()));
+            }
+
+            int size = index.readInt();
+            List<Entry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                entries.add(new Entry(index.readUTF(), (int) index.readLong(), index.readInt(), index.readInt()));
+            }
+
+            long albumsLength = index.readLong();
+            long albumsChecksum = index.readLong();
+            if (channel.size() != albumsLength) {
+                throw mismatch(indexFile);
+            }
+
+            // Every read checks its own album; the first and the last are checked upfront to fail early
+            AlbumArchive archive = new AlbumArchive(indexFile,
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), entries, albumsChecksum);
+            if (!entries.isEmpty()) {
+                archive.slice(entries.getFirst());
+                archive.slice(entries.getLast());
+            }
+            return archive;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static File indexFile(File albumsFile) {
+        return new File(albumsFile.getPath() + INDEX_FILE_EXTENSION);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(String albumId) {
+        return entriesByAlbumId.containsKey(albumId);
+    }
+
+    public Optional<Album> get(String albumId) {
+        return Optional.ofNullable(entriesByAlbumId.get(albumId)).map(this::read);
+    }
+
+    public Album get(int position) {
+        return read(entries.get(position));
+    }
+
+    public List<Album> range(int fromPosition, int toPosition) {
+        return entries.subList(fromPosition, toPosition).stream()
+                .map(this::read)
+                .toList();
+    }
+
+    // Reads the whole albums file, unlike opening the archive
+    public void verify() {
+        CRC32 checksum = new CRC32();
+        checksum.update(albumsBuffer.duplicate());
+        if (checksum.getValue() != albumsChecksum) {
+            throw mismatch(indexFile);
+        }
+    }
+
+    private Album read(Entry entry) {
+        try {
+            return ALBUM_READER.readValue(new ByteBufferBackedInputStream(slice(entry)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ByteBuffer slice(Entry entry) {
+        ByteBuffer albumBytes = albumsBuffer.slice(entry.offset(), entry.length());
+        CRC32 checksum = new CRC32();
+        checksum.update(albumBytes.duplicate());
+        if ((int) checksum.getValue() != entry.checksum()) {
+            throw mismatch(indexFile);
+        }
+        return albumBytes;
+    }
+
+    private static RuntimeException mismatch(File indexFile) {
+        return new RuntimeException(String.format("Index file '%s' does not match its albums file",
+                indexFile.getAbsolutePath()));
+    }
+
+    // Checksums the albums file and each album in it as the bytes go by; the end of an album is known before the
+    // writer hands its bytes over, so they can be split between albums here
+    private static final class ChecksumOutputStream extends FilterOutputStream {
+        private final CRC32 fileChecksum;
+        private final CRC32 entryChecksum;
+        private final ArrayDeque<Long> entryEnds;
+        private final List<Integer> entryChecksums;
+        private long count;
+
+        private ChecksumOutputStream(OutputStream outputStream) {
+            super(outputStream);
+            this.fileChecksum = new CRC32();
+            this.entryChecksum = new CRC32();
+            this.entryEnds = new ArrayDeque<>();
+            this.entryChecksums = new ArrayList<>();
+        }
+
+        private void endEntryAt(long position) {
+            entryEnds.add(position);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            fileChecksum.update(bytes, offset, length);
+
+            while (length > 0) {
+                int entryLength = entryEnds.isEmpty() ? length : (int) Math.min(length, entryEnds.peek() - count);
+                entryChecksum.update(bytes, offset, entryLength);
+                count += entryLength;
+                offset += entryLength;
+                length -= entryLength;
+
+                if (!entryEnds.isEmpty() && count == entryEnds.peek()) {
+                    entryEnds.poll();
+                    entryChecksums.add((int) entryChecksum.getValue());
+                    entryChecksum.reset();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Latest known state of every downloaded album keyed by albumId. Albums that are new or whose rating or votes
+// changed since the last sync are marked dirty, and only those are handed back to the filter
+public class AlbumStore {
+    private static final String ALBUMS_FILE_NAME = "album-store.json";
+    private static final String STATE_FILE_NAME = "album-store-state.json";
+
+    private record State(Instant syncedFrom, Instant highWaterMark, Set<String> acceptedAlbumIds,
+            Set<String> dirtyAlbumIds) {
+    }
+
+    private final File albumsFile;
+    private final File stateFile;
+    private final Map<String, Album> albums;
+    private final Set<String> acceptedAlbumIds;
+    private final Set<String> dirtyAlbumIds;
+
+    private Instant syncedFrom;
+    private Instant highWaterMark;
+
+    AlbumStore(File albumsFile, File stateFile) {
+        this.albumsFile = albumsFile;
+        this.stateFile = stateFile;
+        this.albums = new LinkedHashMap<>();
+        this.acceptedAlbumIds = new LinkedHashSet<>();
+        this.dirtyAlbumIds = new LinkedHashSet<>();
+
+        load();
+    }
+
+    public static AlbumStore open() {
+        return new AlbumStore(Storage.createFile(ALBUMS_FILE_NAME), Storage.createFile(STATE_FILE_NAME));
+    }
+
+    // Pages older than the newest album seen at the last sync are already in the store, unless the requested
+    // window reaches further back than anything synced so far
+    public Instant syncCutoff(Instant afterDate) {
+        if (syncedFrom == null || highWaterMark == null || afterDate.isBefore(syncedFrom)) {
+            return afterDate;
+        }
+        return highWaterMark.isAfter(afterDate) ? highWaterMark : afterDate;
+    }
+
+    public List<Album> merge(List<Album> downloadedAlbums, Instant cutoff) {
+        List<Album> changedAlbums = downloadedAlbums.stream()
+                .filter(this::merge)
+                .toList();
+
+        if (syncedFrom == null || cutoff.isBefore(syncedFrom)) {
+            syncedFrom = cutoff;
+        }
+
+        downloadedAlbums.stream()
+                .map(Album::getDate)
+                .filter(date -> date != null && (highWaterMark == null || date.isAfter(highWaterMark)))
+                .forEach(date -> highWaterMark = date);
+
+        return changedAlbums;
+    }
+
+    private boolean merge(Album album) {
+        Album knownAlbum = albums.get(album.getAlbumId());
+
+        if (knownAlbum != null && album.getDate() == null) {
+            album.setDate(knownAlbum.getDate());
+        }
+        albums.put(album.getAlbumId(), album);
+
+        boolean hasChanged = knownAlbum == null
+                || Double.compare(knownAlbum.getRating(), album.getRating()) != 0
+                || knownAlbum.getVotes() != album.getVotes();
+        if (hasChanged) {
+            dirtyAlbumIds.add(album.getAlbumId());
+        }
+
+        return hasChanged;
+    }
+
+    public List<Album> getAlbumsToEvaluate() {
+        return dirtyAlbumIds.stream()
+                .map(albums::get)
+                .toList();
+    }
+
+    // Problem albums keep their dirty flag so they are evaluated again on the next run
+    public void recordVerdicts(Collection<Album> evaluatedAlbums, Collection<Album> acceptedAlbums,
+            Collection<Album> problemAlbums) {
+        Set<String> acceptedIds = new HashSet<>();
+        acceptedAlbums.forEach(album -> acceptedIds.add(album.getAlbumId()));
+        Set<String> problemIds = new HashSet<>();
+        problemAlbums.forEach(album -> problemIds.add(album.getAlbumId()));
+
+        for (Album album : evaluatedAlbums) {
+            if (problemIds.contains(album.getAlbumId())) {
+                continue;
+            }
+
+            dirtyAlbumIds.remove(album.getAlbumId());
+            if (acceptedIds.contains(album.getAlbumId())) {
+                acceptedAlbumIds.add(album.getAlbumId());
+            } else {
+                acceptedAlbumIds.remove(album.getAlbumId());
+            }
+        }
+    }
+
+    public List<Album> getAcceptedAlbums() {
+        return acceptedAlbumIds.stream()
+                .map(albums::get)
+                .toList();
+    }
+
+    public int size() {
+        return albums.size();
+    }
+
+    public void save() {
+        Storage.createParentDirectory(albumsFile);
+        Storage.writeAlbums(List.copyOf(albums.values()), albumsFile);
+        Storage.writeAtomically(stateFile, outputStream -> Album.objectMapper().writeValue(outputStream,
+                new State(syncedFrom, highWaterMark, acceptedAlbumIds, dirtyAlbumIds)));
+    }
+
+    private void load() {
+        if (albumsFile.exists()) {
+            try (Stream<Album> storedAlbums = Storage.streamAlbums(albumsFile)) {
+                storedAlbums.forEach(album -> albums.put(album.getAlbumId(), album));
+            }
+        }
+
+        if (stateFile.exists()) {
+            try {
+                State state = Album.objectMapper().readValue(stateFile, State.class);
+                syncedFrom = state.syncedFrom();
+                highWaterMark = state.highWaterMark();
+                acceptedAlbumIds.addAll(state.acceptedAlbumIds());
+                dirtyAlbumIds.addAll(state.dirtyAlbumIds());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
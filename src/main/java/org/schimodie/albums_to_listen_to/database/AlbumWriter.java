@@ -0,0 +1,12 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+public interface AlbumWriter extends AutoCloseable {
+    void write(Album album);
+
+    void flush();
+
+    @Override
+    void close();
+}
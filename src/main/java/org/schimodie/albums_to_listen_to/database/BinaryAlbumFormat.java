@@ -0,0 +1,54 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Layout: a "MSAB" magic and a version byte, then one record per album introduced by RECORD_TAG. Genres, types,
+// artist names and artist ids are dictionary encoded inline: 0 is null, 1 introduces a new entry followed by its
+// value, and n >= 2 refers to the (n - 2)th entry seen so far in that dictionary
+final class BinaryAlbumFormat {
+    static final int MAGIC = 0x4D534142;
+    static final byte VERSION = 1;
+    static final byte RECORD_TAG = 1;
+    static final int NULL_REFERENCE = 0;
+    static final int NEW_ENTRY_REFERENCE = 1;
+    static final int FIRST_ENTRY_REFERENCE = 2;
+
+    private BinaryAlbumFormat() {
+    }
+
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = input.readByte();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length integer");
+    }
+
+    static void writeNullableString(DataOutput output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    static String readNullableString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
@@ -0,0 +1,119 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.FIRST_ENTRY_REFERENCE;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.MAGIC;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.NEW_ENTRY_REFERENCE;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.NULL_REFERENCE;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.RECORD_TAG;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.VERSION;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.readNullableString;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.readVarInt;
+
+class BinaryAlbumReader implements Iterator<Album>, AutoCloseable {
+    private final DataInputStream input;
+    private final List<String> genres;
+    private final List<String> types;
+    private final List<String> artists;
+    private final List<String> artistIds;
+
+    private int nextTag;
+
+    BinaryAlbumReader(InputStream inputStream) {
+        this.input = new DataInputStream(new BufferedInputStream(inputStream));
+        this.genres = new ArrayList<>();
+        this.types = new ArrayList<>();
+        this.artists = new ArrayList<>();
+        this.artistIds = new ArrayList<>();
+
+        try {
+            if (input.readInt() != MAGIC) {
+                throw new RuntimeException("Not a binary albums file");
+            }
+            if (input.readByte() != VERSION) {
+                throw new RuntimeException("Unsupported binary albums file version");
+            }
+            nextTag = input.read();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextTag == RECORD_TAG;
+    }
+
+    @Override
+    public Album next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        try {
+            Album album = Album.builder()
+                    .rating(input.readDouble())
+                    .votes(readVarInt(input))
+                    .artists(readReferences(artists))
+                    .album(readNullableString(input))
+                    .artistIds(readReferences(artistIds))
+                    .albumId(readNullableString(input))
+                    .genre(readReference(genres))
+                    .type(readReference(types))
+                    .date(input.readBoolean() ? Instant.ofEpochSecond(input.readLong(), readVarInt(input)) : null)
+                    .build();
+
+            nextTag = input.read();
+            return album;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private List<String> readReferences(List<String> dictionary) throws IOException {
+        int size = readVarInt(input) - 1;
+        if (size < 0) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            values.add(readReference(dictionary));
+        }
+        return values;
+    }
+
+    private String readReference(List<String> dictionary) throws IOException {
+        int reference = readVarInt(input);
+
+        if (reference == NULL_REFERENCE) {
+            return null;
+        } else if (reference == NEW_ENTRY_REFERENCE) {
+            String value = input.readUTF();
+            dictionary.add(value);
+            return value;
+        }
+
+        return dictionary.get(reference - FIRST_ENTRY_REFERENCE);
+    }
+
+    @Override
+    public void close() {
+        try {
+            input.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
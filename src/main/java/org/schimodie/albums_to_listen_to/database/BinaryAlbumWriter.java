@@ -0,0 +1,112 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.FIRST_ENTRY_REFERENCE;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.MAGIC;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.NEW_ENTRY_REFERENCE;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.NULL_REFERENCE;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.RECORD_TAG;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.VERSION;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.writeNullableString;
+import static org.schimodie.albums_to_listen_to.database.BinaryAlbumFormat.writeVarInt;
+
+class BinaryAlbumWriter implements AlbumWriter {
+    private final DataOutputStream output;
+    private final Map<String, Integer> genres;
+    private final Map<String, Integer> types;
+    private final Map<String, Integer> artists;
+    private final Map<String, Integer> artistIds;
+
+    BinaryAlbumWriter(OutputStream outputStream) {
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        this.genres = new HashMap<>();
+        this.types = new HashMap<>();
+        this.artists = new HashMap<>();
+        this.artistIds = new HashMap<>();
+
+        try {
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void write(Album album) {
+        try {
+            output.writeByte(RECORD_TAG);
+            output.writeDouble(album.getRating());
+            writeVarInt(output, album.getVotes());
+            writeReferences(artists, album.getArtists());
+            writeNullableString(output, album.getAlbum());
+            writeReferences(artistIds, album.getArtistIds());
+            writeNullableString(output, album.getAlbumId());
+            writeReference(genres, album.getGenre());
+            writeReference(types, album.getType());
+
+            output.writeBoolean(album.getDate() != null);
+            if (album.getDate() != null) {
+                output.writeLong(album.getDate().getEpochSecond());
+                writeVarInt(output, album.getDate().getNano());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeReferences(Map<String, Integer> dictionary, List<String> values) throws IOException {
+        if (values == null) {
+            writeVarInt(output, 0);
+            return;
+        }
+
+        writeVarInt(output, values.size() + 1);
+        for (String value : values) {
+            writeReference(dictionary, value);
+        }
+    }
+
+    private void writeReference(Map<String, Integer> dictionary, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(output, NULL_REFERENCE);
+            return;
+        }
+
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarInt(output, index + FIRST_ENTRY_REFERENCE);
+        } else {
+            dictionary.put(value, dictionary.size());
+            writeVarInt(output, NEW_ENTRY_REFERENCE);
+            output.writeUTF(value);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Append-only JSON lines file with one record per downloaded page, so an interrupted download can pick up where it
+// stopped. The channel is only synced every few pages, and a torn last line left behind by a crash is cut off
+public class DownloadCheckpoint implements AutoCloseable {
+    public static final int DEFAULT_PAGES_PER_SYNC = 5;
+
+    private static final String CHECKPOINT_FILE_EXTENSION = ".checkpoint";
+    private static final ObjectMapper OBJECT_MAPPER = Album.objectMapper();
+
+    private record PageRecord(int page, Instant cutoff, List<Album> albums) {
+    }
+
+    private final File checkpointFile;
+    private final Instant cutoff;
+    private final int pagesPerSync;
+    private final Map<Integer, List<Album>> pages;
+
+    private FileChannel channel;
+    private int unsyncedPages;
+
+    DownloadCheckpoint(File checkpointFile, Instant cutoff, int pagesPerSync) {
+        if (pagesPerSync < 1) {
+            throw new IllegalArgumentException("'pagesPerSync' should be at least 1");
+        }
+
+        this.checkpointFile = checkpointFile;
+        this.cutoff = cutoff;
+        this.pagesPerSync = pagesPerSync;
+        this.pages = new TreeMap<>();
+
+        long validLength = load();
+
+        try {
+            this.channel = FileChannel.open(checkpointFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(validLength);
+            channel.position(validLength);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    String.format("Could not open checkpoint '%s'", checkpointFile.getAbsolutePath()), e);
+        }
+
+        if (!pages.isEmpty()) {
+            System.out.printf("Resuming from checkpoint with %d downloaded pages%n", pages.size());
+        }
+    }
+
+    public static DownloadCheckpoint open(String fileName, Instant cutoff) {
+        File checkpointFile = Storage.createFile(fileName + CHECKPOINT_FILE_EXTENSION);
+        Storage.createParentDirectory(checkpointFile);
+        return open(checkpointFile, cutoff);
+    }
+
+    public static DownloadCheckpoint open(File checkpointFile, Instant cutoff) {
+        return new DownloadCheckpoint(checkpointFile, cutoff, DEFAULT_PAGES_PER_SYNC);
+    }
+
+    public synchronized Optional<List<Album>> getPage(int page) {
+        return Optional.ofNullable(pages.get(page)).map(ArrayList::new);
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    public synchronized void recordPage(int page, List<Album> albums) {
+        try {
+            byte[] line = OBJECT_MAPPER.writeValueAsBytes(new PageRecord(page, cutoff, albums));
+            ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            pages.put(page, List.copyOf(albums));
+            if (++unsyncedPages >= pagesPerSync) {
+                channel.force(false);
+                unsyncedPages = 0;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized void reset() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            pages.clear();
+            unsyncedPages = 0;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Called once the downloaded albums have been written for good
+    public synchronized void delete() {
+        close();
+
+        try {
+            Files.deleteIfExists(checkpointFile.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+
+        try (FileChannel openChannel = channel) {
+            openChannel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    // Returns the length of the complete lines; records for another cutoff belong to a different download and
+    // invalidate the whole file
+    private long load() {
+        if (!checkpointFile.exists()) {
+            return 0;
+        }
+
+        try {
+            byte[] content = Files.readAllBytes(checkpointFile.toPath());
+            int lineStart = 0;
+
+            for (int i = 0; i < content.length; ++i) {
+                if (content[i] != '\n') {
+                    continue;
+                }
+
+                PageRecord pageRecord;
+                try {
+                    pageRecord = OBJECT_MAPPER.readValue(content, lineStart, i - lineStart, PageRecord.class);
+                } catch (IOException _) {
+                    break;
+                }
+
+                if (!cutoff.equals(pageRecord.cutoff())) {
+                    pages.clear();
+                    return 0;
+                }
+
+                pages.put(pageRecord.page(), pageRecord.albums());
+                lineStart = i + 1;
+            }
+
+            return lineStart;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+class JsonLinesAlbumWriter implements AlbumWriter {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final ObjectWriter ALBUM_WRITER = Album.objectMapper()
+            .writerFor(Album.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private final CountingOutputStream outputStream;
+    private final JsonGenerator generator;
+
+    JsonLinesAlbumWriter(OutputStream outputStream) {
+        try {
+            this.outputStream = new CountingOutputStream(outputStream);
+            this.generator = Album.objectMapper().getFactory().createGenerator(this.outputStream);
+            this.generator.setRootValueSeparator(null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void write(Album album) {
+        try {
+            ALBUM_WRITER.writeValue(generator, album);
+            generator.writeRaw(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Bytes already handed to the underlying stream plus the ones still sitting in the generator's buffer
+    long position() {
+        return outputStream.count + generator.getOutputBuffered();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            generator.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.schimodie.albums_to_listen_to.bean.AlbumInfoKey;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LastFMResponseCache {
+    private static final String FILE_NAME = "lastfm-album-info-cache.json";
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofDays(7);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private record Entry(Instant fetchedAt, JsonNode response) {
+    }
+
+    private final File cacheFile;
+    private final Duration timeToLive;
+    private final Map<AlbumInfoKey, Entry> entries;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    LastFMResponseCache(File cacheFile, Duration timeToLive) {
+        this.cacheFile = cacheFile;
+        this.timeToLive = timeToLive;
+        this.entries = new ConcurrentHashMap<>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+
+        load();
+    }
+
+    public static LastFMResponseCache open() {
+        return open(DEFAULT_TIME_TO_LIVE);
+    }
+
+    public static LastFMResponseCache open(Duration timeToLive) {
+        return new LastFMResponseCache(Storage.createFile(FILE_NAME), timeToLive);
+    }
+
+    public static LastFMResponseCache open(File cacheFile) {
+        return new LastFMResponseCache(cacheFile, DEFAULT_TIME_TO_LIVE);
+    }
+
+    public Optional<JsonNode> get(AlbumInfoKey key) {
+        Entry entry = entries.get(key);
+
+        if (entry == null || isExpired(entry)) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        hits.incrementAndGet();
+        return Optional.of(entry.response());
+    }
+
+    public synchronized void put(AlbumInfoKey key, JsonNode response) {
+        Entry entry = new Entry(Instant.now(), response);
+        entries.put(key, entry);
+
+        if (!cacheFile.getParentFile().exists() && !cacheFile.getParentFile().mkdirs()) {
+            throw new RuntimeException(
+                    String.format("Could not create directory '%s'", cacheFile.getParentFile().getAbsolutePath()));
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(cacheFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(toLine(key, entry));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Last.fm cache hits: %d, misses: %d", getHits(), getMisses());
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.fetchedAt().plus(timeToLive).isBefore(Instant.now());
+    }
+
+    private static String toLine(AlbumInfoKey key, Entry entry) throws JsonProcessingException {
+        ObjectNode line = OBJECT_MAPPER.createObjectNode()
+                .put("artist", key.artist())
+                .put("album", key.album())
+                .put("username", key.username())
+                .put("fetchedAt", entry.fetchedAt().toEpochMilli());
+        line.set("response", entry.response());
+        return OBJECT_MAPPER.writeValueAsString(line);
+    }
+
+    // Entries are appended as they are fetched, so later lines for the same key override the earlier ones. Lines
+    // that don't parse (a put cut short by a crash) are skipped, and when the file holds anything besides the live
+    // entries it is rewritten with only those
+    private void load() {
+        if (!cacheFile.exists()) {
+            return;
+        }
+
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ++lines;
+
+                JsonNode node;
+                try {
+                    node = OBJECT_MAPPER.readTree(line);
+                } catch (JsonProcessingException e) {
+                    System.out.printf("Skipped a corrupt line of the Last.fm cache: %s%n", e.getOriginalMessage());
+                    continue;
+                }
+                if (node == null || !node.hasNonNull("fetchedAt") || !node.has("response")) {
+                    continue;
+                }
+
+                Entry entry = new Entry(Instant.ofEpochMilli(node.get("fetchedAt").asLong()), node.get("response"));
+                AlbumInfoKey key = AlbumInfoKey.of(node.path("artist").asText(null),
+                        node.path("album").asText(null), node.path("username").asText(null));
+                if (isExpired(entry)) {
+                    entries.remove(key);
+                } else {
+                    entries.put(key, entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (lines > entries.size()) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        Storage.writeAtomically(cacheFile, outputStream -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            for (Map.Entry<AlbumInfoKey, Entry> entry : entries.entrySet()) {
+                writer.write(toLine(entry.getKey(), entry.getValue()));
+                writer.newLine();
+            }
+            writer.flush();
+        });
+    }
+}
@@ -1,18 +1,36 @@
 package org.schimodie.albums_to_listen_to.database;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.schimodie.albums_to_listen_to.bean.Album;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Storage {
     private static final String ALBUMS_SERDE_DIR = "/home/schimodie/Code/Java/misc/db/metalstorm-lastfm-spotify-playlist";
+    private static final ObjectReader ALBUM_READER = Album.objectMapper().readerFor(Album.class);
+
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+    interface ContentWriter {
+        void write(OutputStream outputStream) throws IOException;
+    }
 
     private Storage() {
     }
@@ -22,63 +40,169 @@ public class Storage {
     }
 
     public static List<Album> readAlbums(String fileName) {
+        try (Stream<Album> albums = streamAlbums(fileName)) {
+            return albums.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    public static Stream<Album> streamAlbums(String fileName) {
+        File albumsFile = createFile(fileName);
+        if (!albumsFile.exists()) {
+            throw new RuntimeException(String.format("File '%s' does not exist", albumsFile.getAbsolutePath()));
+        }
+
+        return streamAlbums(albumsFile);
+    }
+
+    public static void writeAlbums(List<Album> albums, String fileName) {
+        File albumsFile = createFile(fileName);
+        createParentDirectory(albumsFile);
+        writeAlbums(albums, albumsFile);
+    }
+
+    public static AlbumWriter openAlbumWriter(String fileName) {
+        File albumsFile = createFile(fileName);
+        createParentDirectory(albumsFile);
+        return openAlbumWriter(albumsFile);
+    }
+
+    public static void writeArchive(List<Album> albums, String fileName) {
+        File albumsFile = createFile(fileName);
+        createParentDirectory(albumsFile);
+        AlbumArchive.write(albums, albumsFile);
+    }
+
+    public static AlbumArchive openArchive(String fileName) {
         File albumsFile = createFile(fileName);
         if (!albumsFile.exists()) {
             throw new RuntimeException(String.format("File '%s' does not exist", albumsFile.getAbsolutePath()));
         }
 
-        List<Album> albums = new ArrayList<>();
+        return AlbumArchive.open(albumsFile);
+    }
+
+    public static void convert(String sourceFileName, String targetFileName) {
+        File targetFile = createFile(targetFileName);
+        StorageFormat targetFormat = StorageFormat.fromFileName(targetFile.getName());
+        createParentDirectory(targetFile);
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(albumsFile))) {
-            boolean continueReading = true;
-            while (continueReading) {
-                String line = reader.readLine();
-                if (line != null) {
-                    albums.add(Album.from(line));
-                } else {
-                    continueReading = false;
+        try (Stream<Album> albums = streamAlbums(sourceFileName)) {
+            writeAtomically(targetFile, outputStream -> {
+                try (AlbumWriter writer = openAlbumWriter(outputStream, targetFormat)) {
+                    albums.forEach(writer::write);
                 }
+            });
+        }
+    }
+
+    static Stream<Album> streamAlbums(File albumsFile) {
+        return switch (StorageFormat.fromFileName(albumsFile.getName())) {
+            case JSON_LINES -> streamJsonLinesAlbums(albumsFile);
+            case BINARY -> streamBinaryAlbums(albumsFile);
+        };
+    }
+
+    static void writeAlbums(List<Album> albums, File albumsFile) {
+        writeAtomically(albumsFile, outputStream -> {
+            try (AlbumWriter writer = openAlbumWriter(outputStream, StorageFormat.fromFileName(albumsFile.getName()))) {
+                albums.forEach(writer::write);
             }
+        });
+    }
+
+    static AlbumWriter openAlbumWriter(File albumsFile) {
+        try {
+            return openAlbumWriter(Files.newOutputStream(albumsFile.toPath()),
+                    StorageFormat.fromFileName(albumsFile.getName()));
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new RuntimeException(
+                    String.format("Could not create file '%s'", albumsFile.getAbsolutePath()), e);
         }
+    }
 
-        return albums;
+    private static AlbumWriter openAlbumWriter(OutputStream outputStream, StorageFormat storageFormat) {
+        return switch (storageFormat) {
+            case JSON_LINES -> new JsonLinesAlbumWriter(outputStream);
+            case BINARY -> new BinaryAlbumWriter(outputStream);
+        };
     }
 
-    public static void writeAlbums(List<Album> albums, String fileName) {
-        File albumsFile = createFile(fileName);
+    // The content goes to a sibling temp file which is synced and then renamed over the target, so a crash leaves
+    // either the old or the new file behind but never a truncated one
+    static void writeAtomically(File file, ContentWriter contentWriter) {
+        Path filePath = file.toPath();
+        Path tempFilePath = filePath.resolveSibling(file.getName() + TEMP_FILE_EXTENSION);
 
-        if (!albumsFile.getParentFile().exists()) {
-            if (!albumsFile.getParentFile().mkdirs()) {
-                throw new RuntimeException(
-                        String.format("Could not create directory '%s'", albumsFile.getParentFile().getAbsolutePath()));
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(tempFilePath)) {
+                contentWriter.write(outputStream);
+            }
+            try (FileChannel channel = FileChannel.open(tempFilePath, StandardOpenOption.WRITE)) {
+                channel.force(true);
             }
-        }
 
-        if (!albumsFile.exists()) {
+            Files.move(tempFilePath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(filePath.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not write file '%s'", file.getAbsolutePath()), e);
+        } finally {
             try {
-                if (!albumsFile.createNewFile()) {
-                    throw new RuntimeException(
-                            String.format("Could not create file '%s'", albumsFile.getAbsolutePath()));
-                }
-            } catch (IOException e) {
-                throw new RuntimeException(
-                        String.format("Could not create file '%s'", albumsFile.getAbsolutePath()), e);
+                Files.deleteIfExists(tempFilePath);
+            } catch (IOException _) {
             }
         }
+    }
+
+    // Makes the rename itself durable; not every platform allows opening a directory, so this is best effort
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException _) {
+        }
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(albumsFile))) {
-            for (Album album : albums) {
-                writer.write(album.toString());
-                writer.newLine();
-            }
+    // A single parser walks the whole file and binds each root-level object, so no per-line Strings are created
+    private static Stream<Album> streamJsonLinesAlbums(File albumsFile) {
+        try {
+            JsonParser parser = Album.objectMapper().getFactory().createParser(Files.newInputStream(albumsFile.toPath()));
+            MappingIterator<Album> iterator = ALBUM_READER.readValues(parser);
+
+            return toStream(iterator).onClose(() -> {
+                try {
+                    iterator.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private static File createFile(String fileName) {
+    private static Stream<Album> streamBinaryAlbums(File albumsFile) {
+        try {
+            BinaryAlbumReader reader = new BinaryAlbumReader(Files.newInputStream(albumsFile.toPath()));
+            return toStream(reader).onClose(reader::close);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Stream<Album> toStream(Iterator<Album> iterator) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    static void createParentDirectory(File albumsFile) {
+        if (!albumsFile.getParentFile().exists()) {
+            if (!albumsFile.getParentFile().mkdirs()) {
+                throw new RuntimeException(
+                        String.format("Could not create directory '%s'", albumsFile.getParentFile().getAbsolutePath()));
+            }
+        }
+    }
+
+    static File createFile(String fileName) {
         return new File(String.format("%s/%s", ALBUMS_SERDE_DIR, fileName));
     }
 }
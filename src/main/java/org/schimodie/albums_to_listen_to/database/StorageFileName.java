@@ -21,10 +21,15 @@ public class StorageFileName {
     }
 
     public static String createFileName(Object... fileParts) {
-        return String.format("%s.json",
+        return createFileName(StorageFormat.JSON_LINES, fileParts);
+    }
+
+    public static String createFileName(StorageFormat format, Object... fileParts) {
+        return String.format("%s.%s",
                 Arrays.stream(fileParts)
                         .map(StorageFileName::cast)
-                        .collect(Collectors.joining(FILE_PART_SEPARATOR)));
+                        .collect(Collectors.joining(FILE_PART_SEPARATOR)),
+                format.getExtension());
     }
 
     private static String cast(Object object) {
@@ -0,0 +1,27 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+@Getter
+public enum StorageFormat {
+    JSON_LINES("json"),
+    BINARY("bin");
+
+    private final String extension;
+
+    StorageFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public static StorageFormat fromFileName(String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equals(extension))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException(
+                        String.format("Unknown storage format for file '%s'", fileName)));
+    }
+}
@@ -0,0 +1,134 @@
+package org.schimodie.albums_to_listen_to.filter;
+
+import lombok.Getter;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Named filter stages ordered by expected cost per rejected album, i.e. cost / (1 - pass rate), so cheap and
+// selective stages run first. Local stages are reordered after every chunk using what was measured so far; remote
+// stages always come after all local ones and only ever see albums every local stage accepted
+public class FilterPipeline {
+    static final int CHUNK_SIZE = 256;
+    // Below this many evaluated albums the measurements are too noisy to trust over the estimates
+    private static final int MIN_MEASURED_ALBUMS = 64;
+
+    @Getter
+    public static final class Stage {
+        private final String name;
+        private final boolean isRemote;
+        private final double estimatedCostInNanos;
+        private final double estimatedPassRate;
+        private final Function<List<Album>, List<Album>> filter;
+
+        private long evaluatedAlbums;
+        private long rejectedAlbums;
+        private long elapsedNanos;
+
+        private Stage(String name, boolean isRemote, double estimatedCostInNanos, double estimatedPassRate,
+                Function<List<Album>, List<Album>> filter) {
+            if (estimatedPassRate < 0.0 || estimatedPassRate > 1.0) {
+                throw new IllegalArgumentException("'estimatedPassRate' should be between 0 and 1");
+            }
+
+            this.name = name;
+            this.isRemote = isRemote;
+            this.estimatedCostInNanos = estimatedCostInNanos;
+            this.estimatedPassRate = estimatedPassRate;
+            this.filter = filter;
+        }
+
+        private List<Album> apply(List<Album> albums) {
+            long startTimeInNanos = System.nanoTime();
+            List<Album> acceptedAlbums = filter.apply(albums);
+            elapsedNanos += System.nanoTime() - startTimeInNanos;
+
+            evaluatedAlbums += albums.size();
+            rejectedAlbums += albums.size() - acceptedAlbums.size();
+            return acceptedAlbums;
+        }
+
+        double getRank() {
+            boolean isMeasured = evaluatedAlbums >= MIN_MEASURED_ALBUMS;
+            double costInNanos = isMeasured ? (double) elapsedNanos / evaluatedAlbums : estimatedCostInNanos;
+            double rejectionRate = isMeasured ? (double) rejectedAlbums / evaluatedAlbums : 1.0 - estimatedPassRate;
+
+            return rejectionRate == 0.0 ? Double.POSITIVE_INFINITY : costInNanos / rejectionRate;
+        }
+    }
+
+    private final List<Stage> localStages;
+    private final List<Stage> remoteStages;
+
+    public FilterPipeline() {
+        this.localStages = new ArrayList<>();
+        this.remoteStages = new ArrayList<>();
+    }
+
+    public FilterPipeline addLocalStage(String name, double estimatedCostInNanos, double estimatedPassRate,
+            Predicate<Album> predicate) {
+        localStages.add(new Stage(name, false, estimatedCostInNanos, estimatedPassRate,
+                albums -> albums.stream().filter(predicate).toList()));
+        return this;
+    }
+
+    public FilterPipeline addRemoteStage(String name, double estimatedCostInNanos, double estimatedPassRate,
+            Function<List<Album>, List<Album>> filter) {
+        remoteStages.add(new Stage(name, true, estimatedCostInNanos, estimatedPassRate, filter));
+        return this;
+    }
+
+    public List<Album> apply(List<Album> albums) {
+        List<Album> candidates = new ArrayList<>();
+        for (int from = 0; from < albums.size(); from += CHUNK_SIZE) {
+            List<Album> chunk = albums.subList(from, Math.min(albums.size(), from + CHUNK_SIZE));
+            candidates.addAll(applyStages(orderStages(localStages), chunk));
+        }
+
+        return applyStages(orderStages(remoteStages), candidates);
+    }
+
+    public List<Stage> getStages() {
+        List<Stage> stages = new ArrayList<>(orderStages(localStages));
+        stages.addAll(orderStages(remoteStages));
+        return stages;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder(String.format("%-24s %10s %10s %10s %12s %14s%n",
+                "Filter stage", "evaluated", "rejected", "rejection", "total ms", "ns per album"));
+
+        for (Stage stage : getStages()) {
+            double evaluatedAlbums = Math.max(1, stage.getEvaluatedAlbums());
+            sb.append(String.format("%-24s %10d %10d %9.1f%% %12.1f %14.0f%n",
+                    stage.getName() + (stage.isRemote() ? " (remote)" : ""),
+                    stage.getEvaluatedAlbums(),
+                    stage.getRejectedAlbums(),
+                    100.0 * stage.getRejectedAlbums() / evaluatedAlbums,
+                    stage.getElapsedNanos() / 1e6,
+                    stage.getElapsedNanos() / evaluatedAlbums));
+        }
+
+        return sb.toString();
+    }
+
+    private static List<Album> applyStages(List<Stage> stages, List<Album> albums) {
+        for (Stage stage : stages) {
+            if (albums.isEmpty()) {
+                break;
+            }
+            albums = stage.apply(albums);
+        }
+        return albums;
+    }
+
+    private static List<Stage> orderStages(List<Stage> stages) {
+        return stages.stream()
+                .sorted(Comparator.comparingDouble(Stage::getRank))
+                .toList();
+    }
+}
@@ -0,0 +1,105 @@
+package org.schimodie.albums_to_listen_to.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Metalstorm publishes ratings with one decimal, so the minimum votes for every rating between 0.0 and 10.0 fit in
+// a table indexed by the rating in tenths. A rating without an entry of its own uses the closest lower one, and
+// ratings below the lowest entry are never accepted. Ratings between two tenths count as the lower one
+public class FilterRules {
+    public record Config(String excludedGenrePattern, List<String> includedTypes,
+            Map<BigDecimal, Integer> minVotesByRating) {
+    }
+
+    public static final Config DEFAULT_CONFIG = new Config("grind", List.of("studio", "ep"), Map.of(
+            new BigDecimal("7.0"), 25,
+            new BigDecimal("7.1"), 23,
+            new BigDecimal("7.2"), 20,
+            new BigDecimal("7.3"), 20,
+            new BigDecimal("7.4"), 17,
+            new BigDecimal("7.5"), 15,
+            new BigDecimal("7.6"), 13,
+            new BigDecimal("7.7"), 12,
+            new BigDecimal("7.8"), 10));
+
+    private static final int MAX_RATING_IN_TENTHS = 100;
+    private static final int NEVER = Integer.MAX_VALUE;
+    private static final double RATING_TOLERANCE_IN_TENTHS = 0.000001;
+
+    private final Pattern excludedGenrePattern;
+    private final Set<String> includedTypes;
+    private final int[] minVotesByRatingInTenths;
+
+    public FilterRules(Config config) {
+        this.excludedGenrePattern = Pattern.compile(config.excludedGenrePattern());
+        this.includedTypes = config.includedTypes().stream()
+                .map(type -> type.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.minVotesByRatingInTenths = createMinVotesTable(config.minVotesByRating());
+    }
+
+    public static FilterRules defaults() {
+        return new FilterRules(DEFAULT_CONFIG);
+    }
+
+    public static FilterRules load(File configFile) {
+        try {
+            return new FilterRules(new ObjectMapper().readValue(configFile, Config.class));
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    String.format("Could not read filter rules from '%s'", configFile.getAbsolutePath()), e);
+        }
+    }
+
+    public boolean acceptsGenreAndType(Album album) {
+        return !excludedGenrePattern.matcher(album.getGenre()).find()
+                && includedTypes.contains(album.getType().toLowerCase(Locale.ROOT));
+    }
+
+    public boolean acceptsRatingAndVotes(Album album) {
+        return album.getVotes() >= getMinVotes(album.getRating());
+    }
+
+    public int getMinVotes(double rating) {
+        // The tolerance keeps ratings like 7.7, stored as 7.6999..., on their own tenth
+        long ratingInTenths = (long) Math.floor(rating * 10 + RATING_TOLERANCE_IN_TENTHS);
+        if (ratingInTenths < 0) {
+            return NEVER;
+        }
+        return minVotesByRatingInTenths[(int) Math.min(ratingInTenths, MAX_RATING_IN_TENTHS)];
+    }
+
+    private static int[] createMinVotesTable(Map<BigDecimal, Integer> minVotesByRating) {
+        TreeMap<Integer, Integer> minVotesByRatingInTenths = new TreeMap<>();
+        minVotesByRating.forEach((rating, minVotes) -> {
+            try {
+                minVotesByRatingInTenths.put(rating.movePointRight(1).intValueExact(), minVotes);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(String.format("Rating '%s' has more than one decimal", rating));
+            }
+        });
+
+        int[] table = new int[MAX_RATING_IN_TENTHS + 1];
+        Arrays.fill(table, NEVER);
+        for (int ratingInTenths = 0; ratingInTenths <= MAX_RATING_IN_TENTHS; ++ratingInTenths) {
+            Map.Entry<Integer, Integer> entry = minVotesByRatingInTenths.floorEntry(ratingInTenths);
+            if (entry != null) {
+                table[ratingInTenths] = entry.getValue();
+            }
+        }
+
+        return table;
+    }
+}
@@ -0,0 +1,157 @@
+package org.schimodie.common.stats;
+
+import java.util.Arrays;
+
+// Keeps every value in a growable primitive buffer and finds all requested ranks with one multi-quickselect, which
+// only partitions the parts of the buffer that still contain a requested rank. Ranks are Math.round(q * (n - 1))
+// and values are ordered by Double.compare, so the results are the same as indexing into a sorted List<Double>
+public class ExactQuantiles {
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+
+    private double[] values;
+    private int size;
+
+    public ExactQuantiles() {
+        this(1024);
+    }
+
+    public ExactQuantiles(int initialCapacity) {
+        this.values = new double[Math.max(1, initialCapacity)];
+    }
+
+    public void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    public ExactQuantiles merge(ExactQuantiles other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Plain summation over the buffer, for callers that need the two-pass mean and variance of the same values
+    public double sum() {
+        double sum = 0.0;
+        for (int i = 0; i < size; ++i) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    public double sumOfSquaredDeviations(double mean) {
+        double sum = 0.0;
+        for (int i = 0; i < size; ++i) {
+            sum += (values[i] - mean) * (values[i] - mean);
+        }
+        return sum;
+    }
+
+    // Reorders the buffer in place, so sums taken afterwards add the values in another order
+    public double[] getQuantiles(double... quantiles) {
+        double[] result = new double[quantiles.length];
+        if (size == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+
+        int[] ranks = new int[quantiles.length];
+        for (int i = 0; i < quantiles.length; ++i) {
+            if (quantiles[i] < 0.0 || quantiles[i] > 1.0) {
+                throw new IllegalArgumentException("'quantile' should be between 0 and 1");
+            }
+            ranks[i] = (int) Math.round(quantiles[i] * (size - 1));
+        }
+
+        int[] sortedRanks = Arrays.stream(ranks).sorted().distinct().toArray();
+        select(0, size - 1, sortedRanks, 0, sortedRanks.length - 1);
+
+        for (int i = 0; i < ranks.length; ++i) {
+            result[i] = values[ranks[i]];
+        }
+        return result;
+    }
+
+    // Places the values of ranks[fromRank..toRank] into their sorted positions within values[from..to]
+    private void select(int from, int to, int[] ranks, int fromRank, int toRank) {
+        while (fromRank <= toRank) {
+            if (to - from < INSERTION_SORT_THRESHOLD) {
+                insertionSort(from, to);
+                return;
+            }
+
+            // Three way partition, since simulated capital piles up on the barriers
+            double pivot = medianOfThree(values[from], values[(from + to) >>> 1], values[to]);
+            int lessEnd = from;
+            int greaterStart = to;
+            for (int i = from; i <= greaterStart; ) {
+                int comparison = Double.compare(values[i], pivot);
+                if (comparison < 0) {
+                    swap(i++, lessEnd++);
+                } else if (comparison > 0) {
+                    swap(i, greaterStart--);
+                } else {
+                    ++i;
+                }
+            }
+
+            int lowerRanksEnd = fromRank;
+            while (lowerRanksEnd <= toRank && ranks[lowerRanksEnd] < lessEnd) {
+                ++lowerRanksEnd;
+            }
+            int upperRanksStart = lowerRanksEnd;
+            while (upperRanksStart <= toRank && ranks[upperRanksStart] <= greaterStart) {
+                ++upperRanksStart;
+            }
+
+            // Recurse into the smaller side and loop on the other one
+            if (lessEnd - from < to - greaterStart) {
+                select(from, lessEnd - 1, ranks, fromRank, lowerRanksEnd - 1);
+                from = greaterStart + 1;
+                fromRank = upperRanksStart;
+            } else {
+                select(greaterStart + 1, to, ranks, upperRanksStart, toRank);
+                to = lessEnd - 1;
+                toRank = lowerRanksEnd - 1;
+            }
+        }
+    }
+
+    private void insertionSort(int from, int to) {
+        for (int i = from + 1; i <= to; ++i) {
+            double value = values[i];
+            int j = i - 1;
+            for (; j >= from && Double.compare(values[j], value) > 0; --j) {
+                values[j + 1] = values[j];
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        if (Double.compare(a, b) > 0) {
+            double value = a;
+            a = b;
+            b = value;
+        }
+        if (Double.compare(b, c) > 0) {
+            b = c;
+        }
+        return Double.compare(a, b) > 0 ? a : b;
+    }
+}
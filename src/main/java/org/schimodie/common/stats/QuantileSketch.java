@@ -0,0 +1,167 @@
+package org.schimodie.common.stats;
+
+// DDSketch: quantiles within a relative accuracy, in memory that depends on the range of the values, not their count
+public class QuantileSketch {
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    static final double MIN_INDEXABLE_VALUE = 1e-9;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final BucketStore positiveBuckets;
+    private final BucketStore negativeBuckets;
+
+    private long zeroCount;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0.0 || relativeAccuracy >= 1.0) {
+            throw new IllegalArgumentException("'relativeAccuracy' should be between 0 and 1");
+        }
+
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.positiveBuckets = new BucketStore();
+        this.negativeBuckets = new BucketStore();
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Cannot add NaN to a quantile sketch");
+        }
+
+        if (value >= MIN_INDEXABLE_VALUE) {
+            positiveBuckets.add(index(value), 1);
+        } else if (value <= -MIN_INDEXABLE_VALUE) {
+            negativeBuckets.add(index(-value), 1);
+        } else {
+            ++zeroCount;
+        }
+
+        min = count == 0 ? value : Math.min(min, value);
+        max = count == 0 ? value : Math.max(max, value);
+        ++count;
+    }
+
+    public QuantileSketch merge(QuantileSketch other) {
+        if (Double.compare(relativeAccuracy, other.relativeAccuracy) != 0) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracies");
+        }
+        if (other.count == 0) {
+            return this;
+        }
+
+        positiveBuckets.merge(other.positiveBuckets);
+        negativeBuckets.merge(other.negativeBuckets);
+        zeroCount += other.zeroCount;
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Uses the same rank as the exact percentiles, Math.round(quantile * (count - 1)); the extremes are exact
+    public double getQuantile(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0) {
+            throw new IllegalArgumentException("'quantile' should be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        long rank = Math.round(quantile * (count - 1));
+        if (rank == 0) {
+            return min;
+        }
+        if (rank == count - 1) {
+            return max;
+        }
+
+        double value;
+        if (rank < negativeBuckets.count) {
+            value = -value(negativeBuckets.indexAtRank(negativeBuckets.count - 1 - rank));
+        } else if (rank < negativeBuckets.count + zeroCount) {
+            value = 0.0;
+        } else {
+            value = value(positiveBuckets.indexAtRank(rank - negativeBuckets.count - zeroCount));
+        }
+
+        return Math.max(min, Math.min(value, max));
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    // Midpoint of the bucket in the relative sense, so it is within the relative accuracy of both bucket bounds
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    // Bucket counts in a contiguous array that grows in both directions as new indexes show up
+    private static class BucketStore {
+        private long[] counts = new long[0];
+        private int offset;
+        private long count;
+
+        void add(int index, long bucketCount) {
+            ensureCapacity(index);
+            counts[index - offset] += bucketCount;
+            count += bucketCount;
+        }
+
+        void merge(BucketStore other) {
+            for (int i = 0; i < other.counts.length; ++i) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        int indexAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            throw new IllegalStateException(String.format("Rank %d is outside of the store", rank));
+        }
+
+        private void ensureCapacity(int index) {
+            if (counts.length == 0) {
+                counts = new long[16];
+                offset = index - 8;
+                return;
+            }
+
+            if (index >= offset && index < offset + counts.length) {
+                return;
+            }
+
+            int newOffset = Math.min(offset, index);
+            int newEnd = Math.max(offset + counts.length, index + 1);
+            int newLength = Math.max(newEnd - newOffset, counts.length * 2);
+            if (index < offset) {
+                newOffset = newEnd - newLength;
+            }
+
+            long[] newCounts = new long[newLength];
+            System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+            counts = newCounts;
+            offset = newOffset;
+        }
+    }
+}
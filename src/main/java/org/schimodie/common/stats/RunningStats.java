@@ -0,0 +1,64 @@
+package org.schimodie.common.stats;
+
+import lombok.Getter;
+
+// Single pass mean and variance (Welford); partial results of different workers are combined with Chan's formula
+public class RunningStats {
+    @Getter
+    private long count;
+    @Getter
+    private double mean;
+    private double sumOfSquaredDeviations;
+    @Getter
+    private double min = Double.NaN;
+    @Getter
+    private double max = Double.NaN;
+
+    public void add(double value) {
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        ++count;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquaredDeviations += delta * (value - mean);
+    }
+
+    public RunningStats merge(RunningStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            sumOfSquaredDeviations = other.sumOfSquaredDeviations;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+
+        long totalCount = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / totalCount;
+        sumOfSquaredDeviations += other.sumOfSquaredDeviations
+                + delta * delta * ((double) count * other.count / totalCount);
+        count = totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    // Population variance, like the exact stats computed so far
+    public double getVariance() {
+        return count == 0 ? Double.NaN : sumOfSquaredDeviations / count;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+}
@@ -0,0 +1,135 @@
+package org.schimodie.common.utils;
+
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+// Same backoff as ExponentialBackoffRetryable, or jittered and budgeted like JitteredRetryable, but the waits are
+// scheduled instead of slept through, so no thread is parked while a call waits for its next attempt
+public class AsyncRetryable<O> {
+    private static final ScheduledExecutorService DEFAULT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("async-retryable").daemon().factory());
+
+    private final int maxRetries;
+    private final int baseTimeInMillis;
+    private final long maxDelayInMillis;
+    private final Jitter jitter;
+    private final Predicate<Throwable> retryOn;
+    private final RetryBudget retryBudget;
+    private final RandomGenerator random;
+    private final ScheduledExecutorService scheduler;
+
+    public AsyncRetryable(int maxRetries, int baseTimeInMillis) {
+        this(maxRetries, baseTimeInMillis, _ -> true);
+    }
+
+    public AsyncRetryable(int maxRetries, int baseTimeInMillis, Predicate<Throwable> retryOn) {
+        this(maxRetries, baseTimeInMillis, retryOn, DEFAULT_SCHEDULER);
+    }
+
+    public AsyncRetryable(int maxRetries, int baseTimeInMillis, Predicate<Throwable> retryOn,
+            ScheduledExecutorService scheduler) {
+        this(maxRetries, baseTimeInMillis, null, null, retryOn, null, null, scheduler);
+    }
+
+    // Without a jitter the delays are the plain ExponentialBackoffRetryable ones; retryBudget may be left unset too
+    @Builder
+    private AsyncRetryable(Integer maxRetries, Integer baseTimeInMillis, Duration maxDelay, Jitter jitter,
+            Predicate<Throwable> retryOn, RetryBudget retryBudget, RandomGenerator random,
+            ScheduledExecutorService scheduler) {
+        this.maxRetries = Objects.requireNonNullElse(maxRetries, JitteredRetryable.DEFAULT_MAX_ATTEMPTS);
+        this.baseTimeInMillis = Objects.requireNonNullElse(baseTimeInMillis,
+                (int) JitteredRetryable.DEFAULT_BASE_DELAY.toMillis());
+        this.maxDelayInMillis = Objects.requireNonNullElse(maxDelay, JitteredRetryable.DEFAULT_MAX_DELAY).toMillis();
+        this.jitter = jitter;
+        this.retryOn = Objects.requireNonNullElse(retryOn, _ -> true);
+        this.retryBudget = retryBudget;
+        this.random = Objects.requireNonNullElseGet(random, RandomGenerator::getDefault);
+        this.scheduler = Objects.requireNonNullElse(scheduler, DEFAULT_SCHEDULER);
+
+        if (this.maxRetries < 1) {
+            throw new IllegalArgumentException("'maxRetries' should be at least 1");
+        }
+    }
+
+    // Completes with the first successful result, with the exception itself if retryOn rejects it, or with a
+    // RetryableException once the retries run out
+    public CompletableFuture<O> retry(Supplier<CompletableFuture<O>> supplier) {
+        CompletableFuture<O> result = new CompletableFuture<>();
+        call(supplier, 0, 0, result);
+        return result;
+    }
+
+    private void attempt(Supplier<CompletableFuture<O>> supplier, int retries, long delayInMillis,
+            CompletableFuture<O> result) {
+        if (delayInMillis <= 0) {
+            call(supplier, retries, delayInMillis, result);
+        } else {
+            scheduler.schedule(() -> call(supplier, retries, delayInMillis, result), delayInMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void call(Supplier<CompletableFuture<O>> supplier, int retries, long previousDelayInMillis,
+            CompletableFuture<O> result) {
+        // The caller gave up on the result, so there is no point in another attempt
+        if (result.isDone()) {
+            return;
+        }
+
+        CompletableFuture<O> future;
+        try {
+            future = supplier.get();
+        } catch (Throwable t) {
+            future = CompletableFuture.failedFuture(t);
+        }
+
+        future.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                if (retryBudget != null) {
+                    retryBudget.recordSuccess();
+                }
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = unwrap(throwable);
+            if (cause instanceof Error || cause instanceof InterruptedException
+                    || cause instanceof CircuitBreakerOpenException || !retryOn.test(cause)) {
+                result.completeExceptionally(cause);
+            } else if (retries + 1 >= maxRetries) {
+                result.completeExceptionally(new RetryableException(
+                        String.format("Reached the maximum number of retries (%s)", maxRetries), cause));
+            } else if (retryBudget != null && !retryBudget.tryAcquireRetry()) {
+                result.completeExceptionally(new RetryableException("Retry budget exhausted", cause));
+            } else {
+                attempt(supplier, retries + 1, delayInMillis(retries, previousDelayInMillis), result);
+            }
+        });
+    }
+
+    private long delayInMillis(int retry, long previousDelayInMillis) {
+        if (jitter == null) {
+            return ((1L << (retry + 1)) - 1) * baseTimeInMillis;
+        }
+        return jitter.delayInMillis(retry, baseTimeInMillis, maxDelayInMillis, previousDelayInMillis, random);
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+}
@@ -0,0 +1,206 @@
+package org.schimodie.common.utils;
+
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Opens when the failure rate of the last windowSize calls reaches the threshold, then lets trial calls through
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    private final String name;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationInNanos;
+    private final int halfOpenCalls;
+    private final Predicate<Throwable> recordFailureOn;
+    private final LongSupplier nanoTime;
+
+    private State state = State.CLOSED;
+    private int windowPosition;
+    private int recordedCalls;
+    private int recordedFailures;
+    private long openedAtInNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    // Exceptions rejected by recordFailureOn count as successes
+    @Builder
+    private CircuitBreaker(String name, Integer windowSize, Integer minimumCalls, Double failureRateThreshold,
+            Duration openDuration, Integer halfOpenCalls, Predicate<Throwable> recordFailureOn, LongSupplier nanoTime) {
+        this.name = Objects.requireNonNullElse(name, "circuit breaker");
+        this.window = new boolean[Objects.requireNonNullElse(windowSize, DEFAULT_WINDOW_SIZE)];
+        this.minimumCalls = Objects.requireNonNullElse(minimumCalls, DEFAULT_MINIMUM_CALLS);
+        this.failureRateThreshold = Objects.requireNonNullElse(failureRateThreshold, DEFAULT_FAILURE_RATE_THRESHOLD);
+        this.openDurationInNanos = Objects.requireNonNullElse(openDuration, DEFAULT_OPEN_DURATION).toNanos();
+        this.halfOpenCalls = Objects.requireNonNullElse(halfOpenCalls, DEFAULT_HALF_OPEN_CALLS);
+        this.recordFailureOn = Objects.requireNonNullElse(recordFailureOn, _ -> true);
+        this.nanoTime = Objects.requireNonNullElse(nanoTime, System::nanoTime);
+
+        if (window.length < 1) {
+            throw new IllegalArgumentException("'windowSize' should be at least 1");
+        }
+        if (this.minimumCalls < 1 || this.minimumCalls > window.length) {
+            throw new IllegalArgumentException("'minimumCalls' should be between 1 and 'windowSize'");
+        }
+        if (this.halfOpenCalls < 1) {
+            throw new IllegalArgumentException("'halfOpenCalls' should be at least 1");
+        }
+    }
+
+    public <O> O call(Callable<O> callable) throws Exception {
+        acquirePermission();
+
+        try {
+            O result = callable.call();
+            onSuccess();
+            return result;
+        } catch (Exception e) {
+            onOutcome(e);
+            throw e;
+        }
+    }
+
+    public <O> CompletableFuture<O> callAsync(Supplier<CompletableFuture<O>> supplier) {
+        try {
+            acquirePermission();
+        } catch (CircuitBreakerOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<O> future;
+        try {
+            future = supplier.get();
+        } catch (RuntimeException e) {
+            onOutcome(e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((_, throwable) -> {
+            if (throwable == null) {
+                onSuccess();
+            } else {
+                onOutcome(unwrap(throwable));
+            }
+        });
+    }
+
+    // Every attempt of the retryable goes through the breaker, and an open breaker ends the retries right away
+    public <O> Retryable<O> decorate(Retryable<O> retryable) {
+        return callable -> retryable.retry(() -> call(callable));
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoTime.getAsLong() - openedAtInNanos >= openDurationInNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAtInNanos < openDurationInNanos) {
+                throw new CircuitBreakerOpenException(String.format("The %s is open", name));
+            }
+
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+            System.out.printf("The %s is half-open%n", name);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                throw new CircuitBreakerOpenException(String.format("The %s is half-open", name));
+            }
+            --halfOpenPermits;
+        }
+    }
+
+    private void onOutcome(Throwable throwable) {
+        if (throwable instanceof CircuitBreakerOpenException || !recordFailureOn.test(throwable)) {
+            onSuccess();
+        } else {
+            onFailure();
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    private synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+
+            if (recordedCalls >= minimumCalls && (double) recordedFailures / recordedCalls >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    private void record(boolean isFailure) {
+        if (recordedCalls == window.length) {
+            if (window[windowPosition]) {
+                --recordedFailures;
+            }
+        } else {
+            ++recordedCalls;
+        }
+
+        window[windowPosition] = isFailure;
+        if (isFailure) {
+            ++recordedFailures;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtInNanos = nanoTime.getAsLong();
+        System.out.printf("The %s is open for %s%n", name, Duration.ofNanos(openDurationInNanos));
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowPosition = 0;
+        recordedCalls = 0;
+        recordedFailures = 0;
+        System.out.printf("The %s is closed%n", name);
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+}
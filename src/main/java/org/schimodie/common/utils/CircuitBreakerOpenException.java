@@ -0,0 +1,9 @@
+package org.schimodie.common.utils;
+
+// Thrown instead of calling an upstream the breaker considers down; retrying it right away is pointless, so no
+// Retryable does
+public class CircuitBreakerOpenException extends RuntimeException {
+    public CircuitBreakerOpenException(final String message) {
+        super(message);
+    }
+}
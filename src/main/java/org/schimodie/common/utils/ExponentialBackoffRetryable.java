@@ -20,6 +20,11 @@ public class ExponentialBackoffRetryable<O> implements Retryable<O> {
             try {
                 Thread.sleep(((1L << retries) - 1) * baseTimeInMillis);
                 return callable.call();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RetryableException("Interrupted while retrying", e);
+            } catch (Error | CircuitBreakerOpenException e) {
+                throw e;
             } catch (Throwable t) {
                 caughtThrowable = t;
             }
@@ -0,0 +1,25 @@
+package org.schimodie.common.utils;
+
+import java.util.random.RandomGenerator;
+
+// Spreads the retries of concurrent callers apart so they don't hit a recovering upstream in lockstep
+public enum Jitter {
+    // base * 2^retry, capped
+    NONE,
+    // Uniform between 0 and the capped exponential delay
+    FULL,
+    // Uniform between the base and three times the previous delay, capped
+    DECORRELATED;
+
+    public long delayInMillis(int retry, long baseInMillis, long capInMillis, long previousDelayInMillis,
+            RandomGenerator random) {
+        long exponentialDelay = Math.min(capInMillis, baseInMillis << Math.min(retry, 30));
+
+        return switch (this) {
+            case NONE -> exponentialDelay;
+            case FULL -> random.nextLong(exponentialDelay + 1);
+            case DECORRELATED -> Math.min(capInMillis,
+                    random.nextLong(baseInMillis, Math.max(baseInMillis, previousDelayInMillis * 3) + 1));
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package org.schimodie.common.utils;
+
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
+
+public class JitteredRetryable<O> implements Retryable<O> {
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(500);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(30);
+
+    private final int maxAttempts;
+    private final long baseDelayInMillis;
+    private final long maxDelayInMillis;
+    private final Duration maxElapsedTime;
+    private final Jitter jitter;
+    private final Predicate<Throwable> retryOn;
+    private final RetryBudget retryBudget;
+    private final RandomGenerator random;
+
+    // Only maxElapsedTime and retryBudget may be left unset to disable them, everything else has a default
+    @Builder
+    private JitteredRetryable(Integer maxAttempts, Duration baseDelay, Duration maxDelay, Duration maxElapsedTime,
+            Jitter jitter, Predicate<Throwable> retryOn, RetryBudget retryBudget, RandomGenerator random) {
+        this.maxAttempts = Objects.requireNonNullElse(maxAttempts, DEFAULT_MAX_ATTEMPTS);
+        this.baseDelayInMillis = Objects.requireNonNullElse(baseDelay, DEFAULT_BASE_DELAY).toMillis();
+        this.maxDelayInMillis = Objects.requireNonNullElse(maxDelay, DEFAULT_MAX_DELAY).toMillis();
+        this.maxElapsedTime = maxElapsedTime;
+        this.jitter = Objects.requireNonNullElse(jitter, Jitter.FULL);
+        this.retryOn = Objects.requireNonNullElse(retryOn, _ -> true);
+        this.retryBudget = retryBudget;
+        this.random = Objects.requireNonNullElseGet(random, RandomGenerator::getDefault);
+
+        if (this.maxAttempts < 1) {
+            throw new IllegalArgumentException("'maxAttempts' should be at least 1");
+        }
+    }
+
+    // Exceptions rejected by retryOn are rethrown as they are, or wrapped if they are checked
+    @Override
+    public O retry(Callable<O> callable) throws RetryableException {
+        long startTimeInNanos = System.nanoTime();
+        long delayInMillis = baseDelayInMillis;
+
+        for (int attempt = 1; ; ++attempt) {
+            Exception caughtException;
+
+            try {
+                O result = callable.call();
+                if (retryBudget != null) {
+                    retryBudget.recordSuccess();
+                }
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RetryableException("Interrupted while retrying", e);
+            } catch (Exception e) {
+                if (e instanceof CircuitBreakerOpenException || !retryOn.test(e)) {
+                    throw e instanceof RuntimeException runtimeException
+                            ? runtimeException
+                            : new RetryableException(e);
+                }
+                caughtException = e;
+            }
+
+            if (attempt >= maxAttempts) {
+                throw new RetryableException(
+                        String.format("Reached the maximum number of retries (%s)", maxAttempts), caughtException);
+            }
+
+            delayInMillis = jitter.delayInMillis(attempt - 1, baseDelayInMillis, maxDelayInMillis, delayInMillis,
+                    random);
+
+            if (maxElapsedTime != null && Duration.ofNanos(System.nanoTime() - startTimeInNanos)
+                    .plusMillis(delayInMillis).compareTo(maxElapsedTime) > 0) {
+                throw new RetryableException(
+                        String.format("Reached the maximum elapsed time (%s)", maxElapsedTime), caughtException);
+            }
+            if (retryBudget != null && !retryBudget.tryAcquireRetry()) {
+                throw new RetryableException("Retry budget exhausted", caughtException);
+            }
+
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayInMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RetryableException("Interrupted while retrying", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.schimodie.common.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiter {
+    private final long intervalInNanos;
+    private final long burstInNanos;
+
+    private long nextFreeTimeInNanos;
+
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, 1);
+    }
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0.0) {
+            throw new IllegalArgumentException("'permitsPerSecond' should be positive");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("'burst' should be at least 1");
+        }
+
+        this.intervalInNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstInNanos = (burst - 1) * intervalInNanos;
+        this.nextFreeTimeInNanos = System.nanoTime() - burstInNanos;
+    }
+
+    public void acquire() {
+        long waitTimeInNanos = reserve();
+
+        if (waitTimeInNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitTimeInNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public CompletableFuture<Void> acquireAsync() {
+        long waitTimeInNanos = reserve();
+
+        if (waitTimeInNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(waitTimeInNanos, TimeUnit.NANOSECONDS));
+    }
+
+    synchronized long reserve() {
+        long now = System.nanoTime();
+        nextFreeTimeInNanos = Math.max(nextFreeTimeInNanos, now - burstInNanos);
+
+        long waitTimeInNanos = Math.max(0, nextFreeTimeInNanos - now);
+        nextFreeTimeInNanos += intervalInNanos;
+        return waitTimeInNanos;
+    }
+}
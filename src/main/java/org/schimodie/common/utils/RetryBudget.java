@@ -0,0 +1,40 @@
+package org.schimodie.common.utils;
+
+// Token bucket shared by all callers of an upstream: every success deposits a fraction of a token and every retry
+// withdraws a whole one, so retries stay a bounded share of the traffic instead of multiplying it during an outage
+public class RetryBudget {
+    private final double maxTokens;
+    private final double tokensPerSuccess;
+
+    private double tokens;
+
+    public RetryBudget(int maxTokens, double retryRatio) {
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("'maxTokens' should be at least 1");
+        }
+        if (retryRatio < 0.0) {
+            throw new IllegalArgumentException("'retryRatio' should not be negative");
+        }
+
+        this.maxTokens = maxTokens;
+        this.tokensPerSuccess = retryRatio;
+        this.tokens = maxTokens;
+    }
+
+    public synchronized boolean tryAcquireRetry() {
+        if (tokens < 1.0) {
+            return false;
+        }
+
+        tokens -= 1.0;
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        tokens = Math.min(maxTokens, tokens + tokensPerSuccess);
+    }
+
+    public synchronized double getTokens() {
+        return tokens;
+    }
+}
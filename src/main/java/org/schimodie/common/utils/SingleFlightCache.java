@@ -0,0 +1,156 @@
+package org.schimodie.common.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Concurrent requests for the same key share one in-flight load, and finished loads accepted by shouldRemember are
+// kept in a bounded LRU so repeated requests don't load again
+public class SingleFlightCache<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlightLoads;
+    private final Map<K, V> recentValues;
+    private final Predicate<V> shouldRemember;
+    private final AtomicInteger loads;
+    private final AtomicInteger coalescedRequests;
+
+    public SingleFlightCache(int capacity, Predicate<V> shouldRemember) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("'capacity' should not be negative");
+        }
+
+        this.inFlightLoads = new ConcurrentHashMap<>();
+        this.recentValues = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.shouldRemember = shouldRemember;
+        this.loads = new AtomicInteger();
+        this.coalescedRequests = new AtomicInteger();
+    }
+
+    // The caller that starts the load runs it on its own thread, the others wait for its result
+    public V get(K key, Supplier<V> loader) {
+        V recentValue = recentValues.get(key);
+        if (recentValue != null) {
+            coalescedRequests.incrementAndGet();
+            return recentValue;
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(key, load);
+        if (inFlightLoad != null) {
+            coalescedRequests.incrementAndGet();
+            return join(inFlightLoad);
+        }
+
+        recentValue = takeRecentValue(key, load);
+        if (recentValue != null) {
+            return recentValue;
+        }
+
+        loads.incrementAndGet();
+        try {
+            V value = loader.get();
+            remember(key, value);
+            inFlightLoads.remove(key, load);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlightLoads.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public CompletableFuture<V> getAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        V recentValue = recentValues.get(key);
+        if (recentValue != null) {
+            coalescedRequests.incrementAndGet();
+            return CompletableFuture.completedFuture(recentValue);
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(key, load);
+        if (inFlightLoad != null) {
+            coalescedRequests.incrementAndGet();
+            // A copy, so one caller cancelling its future doesn't cancel it for the others
+            return inFlightLoad.copy();
+        }
+
+        recentValue = takeRecentValue(key, load);
+        if (recentValue != null) {
+            return CompletableFuture.completedFuture(recentValue);
+        }
+
+        loads.incrementAndGet();
+        CompletableFuture<V> loadedValue;
+        try {
+            loadedValue = loader.get();
+        } catch (RuntimeException e) {
+            loadedValue = CompletableFuture.failedFuture(e);
+        }
+
+        loadedValue.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                remember(key, value);
+            }
+            inFlightLoads.remove(key, load);
+
+            if (throwable == null) {
+                load.complete(value);
+            } else {
+                load.completeExceptionally(throwable);
+            }
+        });
+
+        return load.copy();
+    }
+
+    public int getLoads() {
+        return loads.get();
+    }
+
+    public int getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+
+    // The previous load may have been remembered and left between the first look at recentValues and winning
+    // putIfAbsent, in which case the won load is completed with its value instead of loading again
+    private V takeRecentValue(K key, CompletableFuture<V> load) {
+        V recentValue = recentValues.get(key);
+        if (recentValue != null) {
+            coalescedRequests.incrementAndGet();
+            inFlightLoads.remove(key, load);
+            load.complete(recentValue);
+        }
+        return recentValue;
+    }
+
+    private void remember(K key, V value) {
+        if (value != null && shouldRemember.test(value)) {
+            recentValues.put(key, value);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
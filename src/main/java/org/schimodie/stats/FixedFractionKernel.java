@@ -0,0 +1,31 @@
+package org.schimodie.stats;
+
+// Runs one percent strategy over a batch of paths, one lane per path, with the same results as the scalar loop
+final class FixedFractionKernel {
+    private FixedFractionKernel() {
+    }
+
+    // signs holds a row of +1 (heads) or -1 (tails) per round; capital and rounds start at the starting capital and 1
+    static void run(double percent, double minCapitalCap, double maxCapitalCap, double[] signs, int numRounds,
+            double[] capital, int[] rounds, int lanes) {
+        for (int round = 0; round < numRounds; ++round) {
+            int row = round * lanes;
+            int aliveLanes = 0;
+
+            for (int lane = 0; lane < lanes; ++lane) {
+                double laneCapital = capital[lane];
+                boolean alive = laneCapital > minCapitalCap & laneCapital < maxCapitalCap;
+                double investment = Math.max(0, Math.min(percent * laneCapital / 100.0, laneCapital));
+                double step = signs[row + lane] > 0 ? investment : -investment;
+
+                capital[lane] = alive ? laneCapital + step : laneCapital;
+                rounds[lane] += alive ? 1 : 0;
+                aliveLanes += alive ? 1 : 0;
+            }
+
+            if (aliveLanes == 0) {
+                return;
+            }
+        }
+    }
+}
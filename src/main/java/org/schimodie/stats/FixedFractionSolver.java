@@ -0,0 +1,120 @@
+package org.schimodie.stats;
+
+import java.util.Arrays;
+
+// Exact outcome distribution of a percent strategy, by a dynamic program over (round, heads)
+public final class FixedFractionSolver {
+    public record Solution(WeightedDistribution capital, WeightedDistribution rounds) {
+        @Override
+        public String toString() {
+            return "Capital " + capital + "\n" + "Round " + rounds + "\n";
+        }
+    }
+
+    // z-scores of the simulated means against the exact ones, using the exact standard deviations
+    public record CrossCheck(Solution solution, SimulationResult simulation, double capitalZScore,
+            double roundsZScore) {
+        public boolean isConsistent(double maxZScore) {
+            return Math.abs(capitalZScore) <= maxZScore && Math.abs(roundsZScore) <= maxZScore;
+        }
+    }
+
+    private FixedFractionSolver() {
+    }
+
+    public static Solution solve(SimulationConfig config, PercentStrategy strategy) {
+        if (config.startingCapital() < 0) {
+            throw new IllegalArgumentException("The exact solver needs a non negative starting capital");
+        }
+
+        WeightedDistribution capital = new WeightedDistribution();
+        WeightedDistribution rounds = new WeightedDistribution();
+        int numRounds = config.numRounds();
+
+        if (!isBetweenBarriers(config, config.startingCapital())) {
+            capital.add(clamp(config, config.startingCapital()), 1.0);
+            rounds.add(1, 1.0);
+            return new Solution(capital, rounds);
+        }
+
+        // Same clamping as the simulation, max(0, min(g * capital, capital)), for a non negative capital
+        double fraction = Math.max(0.0, Math.min(strategy.percent() / 100.0, 1.0));
+        double headProbability = config.coinHeadProbability();
+        double[] alive = new double[numRounds + 1];
+        double[] nextAlive = new double[numRounds + 1];
+        alive[0] = 1.0;
+
+        for (int round = 0; round < numRounds; ++round) {
+            Arrays.fill(nextAlive, 0, round + 2, 0.0);
+
+            for (int heads = 0; heads <= round; ++heads) {
+                if (alive[heads] == 0.0) {
+                    continue;
+                }
+
+                step(config, fraction, round + 1, heads + 1, alive[heads] * headProbability, nextAlive, capital,
+                        rounds);
+                step(config, fraction, round + 1, heads, alive[heads] * (1.0 - headProbability), nextAlive, capital,
+                        rounds);
+            }
+
+            double[] swap = alive;
+            alive = nextAlive;
+            nextAlive = swap;
+        }
+
+        for (int heads = 0; heads <= numRounds; ++heads) {
+            capital.add(capitalAt(config, fraction, numRounds, heads), alive[heads]);
+            rounds.add(numRounds + 1, alive[heads]);
+        }
+
+        return new Solution(capital, rounds);
+    }
+
+    // Simulates the strategy on the engine and compares the sample means with the exact ones
+    public static CrossCheck crossCheck(MonteCarloEngine engine, SimulationConfig config, PercentStrategy strategy) {
+        Solution solution = solve(config, strategy);
+        SimulationResult simulation = engine.simulate(config, strategy);
+
+        return new CrossCheck(solution, simulation,
+                zScore(simulation.getCapitalStats(), solution.capital()),
+                zScore(simulation.getRoundsStats(), solution.rounds()));
+    }
+
+    private static void step(SimulationConfig config, double fraction, int roundsPlayed, int heads,
+            double probability, double[] nextAlive, WeightedDistribution capital, WeightedDistribution rounds) {
+        if (probability == 0.0) {
+            return;
+        }
+
+        double value = capitalAt(config, fraction, roundsPlayed, heads);
+        if (isBetweenBarriers(config, value)) {
+            nextAlive[heads] += probability;
+        } else {
+            capital.add(clamp(config, value), probability);
+            rounds.add(roundsPlayed + 1, probability);
+        }
+    }
+
+    private static double capitalAt(SimulationConfig config, double fraction, int roundsPlayed, int heads) {
+        return config.startingCapital() * Math.pow(1.0 + fraction, heads)
+                * Math.pow(1.0 - fraction, roundsPlayed - heads);
+    }
+
+    private static boolean isBetweenBarriers(SimulationConfig config, double capital) {
+        return capital > config.minCapitalCap() && capital < config.maxCapitalCap();
+    }
+
+    private static double clamp(SimulationConfig config, double capital) {
+        return Math.max(Math.min(capital, config.maxCapitalCap()), config.minCapitalCap());
+    }
+
+    private static double zScore(GamblingSim.Stats simulated, WeightedDistribution exact) {
+        double standardError = exact.getStandardDeviation() / Math.sqrt(simulated.getCount());
+        double difference = simulated.getMean() - exact.getMean();
+        if (standardError == 0.0) {
+            return Math.abs(difference) < 1e-9 ? 0.0 : Double.POSITIVE_INFINITY;
+        }
+        return difference / standardError;
+    }
+}
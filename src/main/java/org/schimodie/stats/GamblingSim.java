@@ -1,64 +1,98 @@
 package org.schimodie.stats;
 
+import org.schimodie.common.stats.ExactQuantiles;
+import org.schimodie.common.stats.QuantileSketch;
+import org.schimodie.common.stats.RunningStats;
+
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
-import java.util.function.Function;
+import java.util.Locale;
 
 public class GamblingSim {
-    @FunctionalInterface
-    private interface InvestmentStrategy {
-        double invest(double capital);
-    }
-
-    private static class Stats {
-        private static final double[] PERCENTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0};
-        private final List<Double> data;
+    // The mean and variance are tracked in a single pass, the percentiles either by a sketch in constant memory or
+    // exactly from every sample, in which case the moments are computed in two passes over the samples in the order
+    // they came in; the old code summed them sorted, so the moments may differ from it in the last bits
+    static class Stats {
+        static final double[] PERCENTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0};
+        private final RunningStats runningStats;
+        private final QuantileSketch quantileSketch;
+        private ExactQuantiles exactQuantiles;
 
         private double[] percentiles;
         private double mean;
         private double standardDeviation;
         private double variance;
 
-        public Stats() {
-            data = new ArrayList<>();
+        public Stats(PercentileMode percentileMode) {
+            runningStats = new RunningStats();
+            quantileSketch = percentileMode == PercentileMode.SKETCH ? new QuantileSketch() : null;
+            exactQuantiles = percentileMode == PercentileMode.EXACT ? new ExactQuantiles() : null;
             percentiles = new double[PERCENTILES.length];
         }
 
         public void add(double datum) {
-            data.add(datum);
+            runningStats.add(datum);
+            if (quantileSketch != null) {
+                quantileSketch.add(datum);
+            } else {
+                exactQuantiles.add(datum);
+            }
         }
 
-        public void compute() {
-            Collections.sort(data);
-
-            percentiles = Arrays.stream(PERCENTILES)
-                    .map(perc -> Math.round(perc * (data.size() - 1)))
-                    .boxed()
-                    .mapToInt(Double::intValue)
-                    .mapToDouble(data::get)
-                    .toArray();
-
-            mean = 0.0;
-            for (Double datum : data) {
-                mean += datum;
+        public void merge(Stats other) {
+            runningStats.merge(other.runningStats);
+            if (quantileSketch != null) {
+                quantileSketch.merge(other.quantileSketch);
+            } else {
+                exactQuantiles.merge(other.exactQuantiles);
             }
-            mean /= data.size();
+        }
 
-            variance = 0.0;
-            for (Double datum : data) {
-                variance += (datum - mean) * (datum - mean);
+        public void compute() {
+            if (quantileSketch != null) {
+                percentiles = Arrays.stream(PERCENTILES)
+                        .map(quantileSketch::getQuantile)
+                        .toArray();
+                mean = runningStats.getMean();
+                variance = runningStats.getVariance();
+            } else if (exactQuantiles != null) {
+                // Before the quickselect reorders the samples
+                mean = exactQuantiles.sum() / exactQuantiles.size();
+                variance = exactQuantiles.sumOfSquaredDeviations(mean) / exactQuantiles.size();
+                percentiles = exactQuantiles.getQuantiles(PERCENTILES);
+                // Nothing needs the samples once the statistics are computed
+                exactQuantiles = null;
             }
-            variance /= data.size();
             standardDeviation = Math.sqrt(variance);
         }
 
+        public long getCount() {
+            return runningStats.getCount();
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStandardDeviation() {
+            return standardDeviation;
+        }
+
+        public double[] getPercentiles() {
+            return percentiles.clone();
+        }
+
         @Override
         public String toString() {
+            return format("elements", runningStats.getCount(), mean, standardDeviation, variance, percentiles);
+        }
+
+        // Shared with the exact solver, which counts its distinct outcomes instead of samples
+        static String format(String countLabel, long count, double mean, double standardDeviation, double variance,
+                double[] percentiles) {
             final StringBuffer sb = new StringBuffer("Stats:\n");
-            sb.append(">>    elements: ").append(data.size()).append("\n");
+            sb.append(">> ").append(String.format("%11s", countLabel)).append(": ").append(count).append("\n");
             sb.append(">>        mean: ").append(String.format("%.2f", mean)).append("\n");
             sb.append(">>         std: ").append(String.format("%.2f", standardDeviation)).append("\n");
             sb.append(">>    variance: ").append(String.format("%.2f", variance)).append("\n");
@@ -79,49 +113,68 @@ public class GamblingSim {
     public static void simulate(int numIterations, int numRounds, double startingCapital,
             double minCapitalCap, double maxCapitalCap, double coinHeadProbability,
             InvestmentStrategy investmentStrategy) {
-        Stats capitalStats = new Stats();
-        Stats roundsStats = new Stats();
-        Random random = new Random();
-        double coinThreshold = 1.0 - coinHeadProbability;
-
-        for (int i = 0; i < numIterations; ++i) {
-            double capital = startingCapital;
-            int round = 1;
-
-            for (; round <= numRounds && capital > minCapitalCap && capital < maxCapitalCap; ++round) {
-                double investment = Math.max(0, Math.min(investmentStrategy.invest(capital), capital));
-                if (random.nextDouble() > coinThreshold) { // head
-                    capital += investment;
-                } else { // tails
-                    capital -= investment;
-                }
-            }
-
-            capital = Math.max(Math.min(capital, maxCapitalCap), minCapitalCap);
-            capitalStats.add(capital);
-            roundsStats.add(round);
+        try (MonteCarloEngine engine = new MonteCarloEngine(System.nanoTime())) {
+            System.out.print(engine.simulate(new SimulationConfig(numIterations, numRounds, startingCapital,
+                    minCapitalCap, maxCapitalCap, coinHeadProbability), investmentStrategy));
         }
-
-        capitalStats.compute();
-        roundsStats.compute();
-
-        System.out.print("Capital ");
-        System.out.println(capitalStats);
-        System.out.print("Round ");
-        System.out.println(roundsStats);
     }
 
+    // The percent strategies share their coin flips and run through the batch kernel; the random strategy needs
+    // its own generator, so it is simulated path by path. With --exact the percent strategies are solved exactly
+    // instead, --cross-check compares the exact solutions with the simulations and --sweep [csv|tsv] prints the table
+    // of a sweep over the default grid
     public static void main(String[] args) {
-        final Random random = new Random();
-        InvestmentStrategy randomStrategy = capital -> random.nextDouble(0.0, capital + 0.00000001);
-        Function<Integer, InvestmentStrategy> percentStrategy = percent -> capital -> percent * capital / 100.0;
+        List<String> arguments = List.of(args);
+        InvestmentStrategy randomStrategy = (capital, random) -> random.nextDouble(0.0, capital + 0.00000001);
+        SimulationConfig config = new SimulationConfig(1_000_000, 100, 25, 0, 250, 0.6);
 
-        System.out.println("Random:");
-        simulate(1_000_000, 100, 25, 0, 250, 0.6, randomStrategy);
+        List<String> names = new ArrayList<>();
+        List<PercentStrategy> percentStrategies = new ArrayList<>();
         for (int i = 0; i <= 100; i += 5) {
             int percent = i > 0 ? i : 1;
-            System.out.println("Percent " + percent + ":");
-            simulate(1_000_000, 100, 25, 0, 250, 0.6, percentStrategy.apply(percent));
+            names.add("Percent " + percent);
+            percentStrategies.add(new PercentStrategy(percent));
+        }
+
+        if (arguments.contains("--exact")) {
+            for (int i = 0; i < names.size(); ++i) {
+                System.out.println(names.get(i) + " (exact):");
+                System.out.print(FixedFractionSolver.solve(config, percentStrategies.get(i)));
+            }
+            return;
+        }
+
+        try (MonteCarloEngine engine = new MonteCarloEngine(System.nanoTime())) {
+            int sweepIndex = arguments.indexOf("--sweep");
+            if (sweepIndex >= 0) {
+                StrategySweep.Format format = sweepIndex + 1 < arguments.size()
+                        ? StrategySweep.Format.valueOf(arguments.get(sweepIndex + 1).toUpperCase(Locale.ROOT))
+                        : StrategySweep.Format.CSV;
+                StrategySweep.writeTable(new StrategySweep(engine).run(SweepGrid.builder().build()), System.out,
+                        format);
+                return;
+            }
+
+            if (arguments.contains("--cross-check")) {
+                for (int i = 0; i < names.size(); ++i) {
+                    FixedFractionSolver.CrossCheck crossCheck =
+                            FixedFractionSolver.crossCheck(engine, config, percentStrategies.get(i));
+                    System.out.printf("%s: capital z-score %.2f, rounds z-score %.2f%s%n", names.get(i),
+                            crossCheck.capitalZScore(), crossCheck.roundsZScore(),
+                            crossCheck.isConsistent(4.0) ? "" : " (MISMATCH)");
+                }
+                return;
+            }
+
+            SimulationResult randomResult = engine.simulate(config, randomStrategy);
+            List<SimulationResult> percentResults = engine.simulate(config, List.copyOf(percentStrategies));
+
+            System.out.println("Random:");
+            System.out.print(randomResult);
+            for (int i = 0; i < names.size(); ++i) {
+                System.out.println(names.get(i) + ":");
+                System.out.print(percentResults.get(i));
+            }
         }
     }
 }
@@ -0,0 +1,10 @@
+package org.schimodie.stats;
+
+import java.util.random.RandomGenerator;
+
+// Strategies that need randomness draw it from the generator they are given, so every worker has its own stream
+// and runs stay reproducible
+@FunctionalInterface
+public interface InvestmentStrategy {
+    double invest(double capital, RandomGenerator random);
+}
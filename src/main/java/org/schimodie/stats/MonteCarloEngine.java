@@ -0,0 +1,194 @@
+package org.schimodie.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Results only depend on the seed and the chunk count, and all strategies of a run see the same coin flips
+public class MonteCarloEngine implements AutoCloseable {
+    public static final int DEFAULT_CHUNKS = 256;
+    static final int BATCH_LANES = 1024;
+
+    private final long seed;
+    private final int chunks;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    public MonteCarloEngine(long seed) {
+        this(seed, DEFAULT_CHUNKS, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MonteCarloEngine(long seed, int chunks, int parallelism) {
+        this(seed, chunks, Executors.newFixedThreadPool(parallelism), true);
+    }
+
+    public MonteCarloEngine(long seed, int chunks, ExecutorService executor) {
+        this(seed, chunks, executor, false);
+    }
+
+    private MonteCarloEngine(long seed, int chunks, ExecutorService executor, boolean ownsExecutor) {
+        if (chunks < 1) {
+            throw new IllegalArgumentException("'chunks' should be at least 1");
+        }
+
+        this.seed = seed;
+        this.chunks = chunks;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public SimulationResult simulate(SimulationConfig config, InvestmentStrategy strategy) {
+        return simulate(config, List.of(strategy)).getFirst();
+    }
+
+    public List<SimulationResult> simulate(SimulationConfig config, List<InvestmentStrategy> strategies) {
+        try {
+            return simulateAsync(config, strategies).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Runs any other work of a simulation, e.g. preparing its strategies, on the same pool as its chunks
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    // Queues all the chunks on the engine's pool right away, so several configurations can share the workers
+    public CompletableFuture<List<SimulationResult>> simulateAsync(SimulationConfig config,
+            List<? extends InvestmentStrategy> strategies) {
+        List<InvestmentStrategy> strategyList = List.copyOf(strategies);
+        // Exact percentiles keep every sample, so the strategies are run one at a time
+        if (config.percentileMode() == PercentileMode.EXACT && strategyList.size() > 1) {
+            CompletableFuture<List<SimulationResult>> results = CompletableFuture.completedFuture(new ArrayList<>());
+            for (InvestmentStrategy strategy : strategyList) {
+                results = results.thenCompose(done -> simulateAsync(config, List.of(strategy)).thenApply(result -> {
+                    done.addAll(result);
+                    return done;
+                }));
+            }
+            return results;
+        }
+
+        SplittableRandom rootRandom = new SplittableRandom(seed);
+        List<CompletableFuture<List<SimulationResult>>> chunkResults = new ArrayList<>(chunks);
+
+        for (int chunk = 0; chunk < chunks; ++chunk) {
+            int iterations = (int) ((long) (chunk + 1) * config.numIterations() / chunks
+                    - (long) chunk * config.numIterations() / chunks);
+            SplittableRandom coinRandom = rootRandom.split();
+            SplittableRandom strategyRandom = rootRandom.split();
+
+            chunkResults.add(CompletableFuture.supplyAsync(
+                    () -> simulateChunk(config, strategyList, iterations, coinRandom, strategyRandom), executor));
+        }
+
+        return CompletableFuture.allOf(chunkResults.toArray(CompletableFuture[]::new)).thenApply(_ -> {
+            List<SimulationResult> results = chunkResults.getFirst().join();
+            for (int chunk = 1; chunk < chunks; ++chunk) {
+                List<SimulationResult> chunkResult = chunkResults.get(chunk).join();
+                for (int i = 0; i < results.size(); ++i) {
+                    results.get(i).merge(chunkResult.get(i));
+                }
+            }
+
+            results.forEach(SimulationResult::compute);
+            return results;
+        });
+    }
+
+    static List<SimulationResult> simulateChunk(SimulationConfig config, List<InvestmentStrategy> strategies,
+            int iterations, SplittableRandom coinRandom, SplittableRandom strategyRandom) {
+        if (strategies.stream().allMatch(PercentStrategy.class::isInstance)) {
+            return simulateChunkInBatches(config, strategies, iterations, coinRandom);
+        }
+        return simulateChunkPathByPath(config, strategies, iterations, coinRandom, strategyRandom);
+    }
+
+    // Draws the flips of each path upfront, in the same order as the batches, so percent strategies match either way
+    static List<SimulationResult> simulateChunkPathByPath(SimulationConfig config,
+            List<InvestmentStrategy> strategies, int iterations, SplittableRandom coinRandom,
+            SplittableRandom strategyRandom) {
+        List<SimulationResult> results = new ArrayList<>(strategies.size());
+        strategies.forEach(_ -> results.add(new SimulationResult(config.percentileMode())));
+
+        boolean[] heads = new boolean[config.numRounds()];
+        double coinThreshold = 1.0 - config.coinHeadProbability();
+
+        for (int i = 0; i < iterations; ++i) {
+            for (int round = 0; round < config.numRounds(); ++round) {
+                heads[round] = coinRandom.nextDouble() > coinThreshold;
+            }
+
+            for (int s = 0; s < strategies.size(); ++s) {
+                InvestmentStrategy strategy = strategies.get(s);
+                double capital = config.startingCapital();
+                int round = 1;
+
+                for (; round <= config.numRounds() && capital > config.minCapitalCap()
+                        && capital < config.maxCapitalCap(); ++round) {
+                    double investment = Math.max(0, Math.min(strategy.invest(capital, strategyRandom), capital));
+                    if (heads[round - 1]) {
+                        capital += investment;
+                    } else {
+                        capital -= investment;
+                    }
+                }
+
+                capital = Math.max(Math.min(capital, config.maxCapitalCap()), config.minCapitalCap());
+                results.get(s).add(capital, round);
+            }
+        }
+
+        return results;
+    }
+
+    static List<SimulationResult> simulateChunkInBatches(SimulationConfig config,
+            List<InvestmentStrategy> strategies, int iterations, SplittableRandom coinRandom) {
+        List<SimulationResult> results = new ArrayList<>(strategies.size());
+        strategies.forEach(_ -> results.add(new SimulationResult(config.percentileMode())));
+
+        int batchLanes = Math.min(BATCH_LANES, iterations);
+        double[] signs = new double[config.numRounds() * batchLanes];
+        double[] capital = new double[batchLanes];
+        int[] rounds = new int[batchLanes];
+        double coinThreshold = 1.0 - config.coinHeadProbability();
+
+        for (int batchStart = 0; batchStart < iterations; batchStart += batchLanes) {
+            int lanes = Math.min(batchLanes, iterations - batchStart);
+            for (int lane = 0; lane < lanes; ++lane) {
+                for (int round = 0; round < config.numRounds(); ++round) {
+                    signs[round * lanes + lane] = coinRandom.nextDouble() > coinThreshold ? 1.0 : -1.0;
+                }
+            }
+
+            for (int s = 0; s < strategies.size(); ++s) {
+                Arrays.fill(capital, 0, lanes, config.startingCapital());
+                Arrays.fill(rounds, 0, lanes, 1);
+                FixedFractionKernel.run(((PercentStrategy) strategies.get(s)).percent(), config.minCapitalCap(),
+                        config.maxCapitalCap(), signs, config.numRounds(), capital, rounds, lanes);
+
+                SimulationResult result = results.get(s);
+                for (int lane = 0; lane < lanes; ++lane) {
+                    result.add(Math.max(Math.min(capital[lane], config.maxCapitalCap()), config.minCapitalCap()),
+                            rounds[lane]);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.close();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.schimodie.stats;
+
+import java.util.random.RandomGenerator;
+
+// Bets a fixed percentage of the current capital every round. The engine recognises it and simulates it in batches
+public record PercentStrategy(double percent) implements InvestmentStrategy {
+    @Override
+    public double invest(double capital, RandomGenerator random) {
+        return percent * capital / 100.0;
+    }
+}
@@ -0,0 +1,8 @@
+package org.schimodie.stats;
+
+public enum PercentileMode {
+    // Bounded memory, percentiles within the sketch's relative accuracy
+    SKETCH,
+    // Keeps every sample, percentiles match the original sort based computation and moments match it up to rounding
+    EXACT
+}
@@ -0,0 +1,26 @@
+package org.schimodie.stats;
+
+import java.util.Objects;
+
+public record SimulationConfig(int numIterations, int numRounds, double startingCapital, double minCapitalCap,
+        double maxCapitalCap, double coinHeadProbability, PercentileMode percentileMode) {
+    public SimulationConfig(int numIterations, int numRounds, double startingCapital, double minCapitalCap,
+            double maxCapitalCap, double coinHeadProbability) {
+        this(numIterations, numRounds, startingCapital, minCapitalCap, maxCapitalCap, coinHeadProbability,
+                PercentileMode.SKETCH);
+    }
+
+    public SimulationConfig {
+        Objects.requireNonNull(percentileMode);
+
+        if (numIterations < 1) {
+            throw new IllegalArgumentException("'numIterations' should be at least 1");
+        }
+        if (numRounds < 0) {
+            throw new IllegalArgumentException("'numRounds' should not be negative");
+        }
+        if (coinHeadProbability < 0.0 || coinHeadProbability > 1.0) {
+            throw new IllegalArgumentException("'coinHeadProbability' should be between 0 and 1");
+        }
+    }
+}
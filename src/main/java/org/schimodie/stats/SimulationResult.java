@@ -0,0 +1,37 @@
+package org.schimodie.stats;
+
+import lombok.Getter;
+
+// Final capital and the round each path stopped at, for one strategy; results of different workers are merged
+@Getter
+public class SimulationResult {
+    private final GamblingSim.Stats capitalStats;
+    private final GamblingSim.Stats roundsStats;
+
+    public SimulationResult(PercentileMode percentileMode) {
+        this.capitalStats = new GamblingSim.Stats(percentileMode);
+        this.roundsStats = new GamblingSim.Stats(percentileMode);
+    }
+
+    public void add(double capital, int round) {
+        capitalStats.add(capital);
+        roundsStats.add(round);
+    }
+
+    public SimulationResult merge(SimulationResult other) {
+        capitalStats.merge(other.capitalStats);
+        roundsStats.merge(other.roundsStats);
+        return this;
+    }
+
+    public SimulationResult compute() {
+        capitalStats.compute();
+        roundsStats.compute();
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "Capital " + capitalStats + "\n" + "Round " + roundsStats + "\n";
+    }
+}
@@ -0,0 +1,143 @@
+package org.schimodie.stats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Simulates a grid, plus one percent per configuration refined by golden-section search on the exact solver
+public class StrategySweep {
+    public enum Format {
+        CSV(","),
+        TSV("\t");
+
+        private final String separator;
+
+        Format(String separator) {
+            this.separator = separator;
+        }
+    }
+
+    public static final double DEFAULT_TOLERANCE = 0.01;
+    private static final double INVERSE_GOLDEN_RATIO = (Math.sqrt(5) - 1) / 2;
+
+    private final MonteCarloEngine engine;
+    private final double tolerance;
+
+    public StrategySweep(MonteCarloEngine engine) {
+        this(engine, DEFAULT_TOLERANCE);
+    }
+
+    public StrategySweep(MonteCarloEngine engine, double tolerance) {
+        if (tolerance <= 0.0) {
+            throw new IllegalArgumentException("'tolerance' should be positive");
+        }
+
+        this.engine = engine;
+        this.tolerance = tolerance;
+    }
+
+    public List<SweepPoint> run(SweepGrid grid) {
+        List<SimulationConfig> configurations = grid.configurations();
+        List<CompletableFuture<Double>> refinements = new ArrayList<>();
+        List<CompletableFuture<List<SimulationResult>>> simulations = new ArrayList<>();
+
+        // Each configuration is refined on the engine's pool and simulated as soon as its refinement is done, so the
+        // searches run alongside each other and alongside the simulations already queued
+        for (SimulationConfig config : configurations) {
+            CompletableFuture<Double> refinement = engine.supplyAsync(
+                    () -> refine(config, grid.getPercents(), tolerance));
+            refinements.add(refinement);
+            simulations.add(refinement.thenCompose(refinedPercent -> {
+                List<Double> percents = withRefinedPercent(grid.getPercents(), refinedPercent);
+                return engine.simulateAsync(config, percents.stream().map(PercentStrategy::new).toList());
+            }));
+        }
+
+        List<SweepPoint> points = new ArrayList<>();
+        for (int i = 0; i < configurations.size(); ++i) {
+            SimulationConfig config = configurations.get(i);
+            double refinedPercent = refinements.get(i).join();
+            List<Double> percents = withRefinedPercent(grid.getPercents(), refinedPercent);
+            List<SimulationResult> results = simulations.get(i).join();
+
+            for (int j = 0; j < percents.size(); ++j) {
+                GamblingSim.Stats capitalStats = results.get(j).getCapitalStats();
+                points.add(new SweepPoint(percents.get(j), config, percents.get(j) == refinedPercent,
+                        capitalStats.getMean(), capitalStats.getStandardDeviation(), capitalStats.getPercentiles()[4],
+                        results.get(j).getRoundsStats().getMean(), expectedLogCapital(config, percents.get(j))));
+            }
+        }
+
+        return points;
+    }
+
+    private static List<Double> withRefinedPercent(List<Double> gridPercents, double refinedPercent) {
+        List<Double> percents = new ArrayList<>(gridPercents);
+        if (!Double.isNaN(refinedPercent) && !percents.contains(refinedPercent)) {
+            percents.add(refinedPercent);
+        }
+        return percents;
+    }
+
+    public static void writeTable(List<SweepPoint> points, Appendable output, Format format) {
+        try {
+            output.append(String.join(format.separator, SweepPoint.COLUMNS)).append('\n');
+            for (SweepPoint point : points) {
+                output.append(String.join(format.separator, point.values())).append('\n');
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Expected log-capital is the growth rate a fixed fraction bettor maximises (the Kelly criterion); it is -Infinity
+    // as soon as ruin has a non zero probability
+    static double expectedLogCapital(SimulationConfig config, double percent) {
+        return FixedFractionSolver.solve(config, new PercentStrategy(percent)).capital().getExpectation(Math::log);
+    }
+
+    static double refine(SimulationConfig config, List<Double> percents, double tolerance) {
+        int bestIndex = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < percents.size(); ++i) {
+            double value = expectedLogCapital(config, percents.get(i));
+            if (value > bestValue) {
+                bestIndex = i;
+                bestValue = value;
+            }
+        }
+
+        // No grid percent has a finite objective to compare with, so there is nothing to refine
+        if (!Double.isFinite(bestValue)) {
+            return Double.NaN;
+        }
+
+        double lower = percents.get(Math.max(0, bestIndex - 1));
+        double upper = percents.get(Math.min(percents.size() - 1, bestIndex + 1));
+        double left = upper - INVERSE_GOLDEN_RATIO * (upper - lower);
+        double right = lower + INVERSE_GOLDEN_RATIO * (upper - lower);
+        double leftValue = expectedLogCapital(config, left);
+        double rightValue = expectedLogCapital(config, right);
+
+        while (upper - lower > tolerance) {
+            if (leftValue >= rightValue) {
+                upper = right;
+                right = left;
+                rightValue = leftValue;
+                left = upper - INVERSE_GOLDEN_RATIO * (upper - lower);
+                leftValue = expectedLogCapital(config, left);
+            } else {
+                lower = left;
+                left = right;
+                leftValue = rightValue;
+                right = lower + INVERSE_GOLDEN_RATIO * (upper - lower);
+                rightValue = expectedLogCapital(config, right);
+            }
+        }
+
+        // The unimodal search can't see the grid point it started from, keep it if the bracket did no better
+        double refinedPercent = (lower + upper) / 2;
+        return expectedLogCapital(config, refinedPercent) >= bestValue ? refinedPercent : percents.get(bestIndex);
+    }
+}
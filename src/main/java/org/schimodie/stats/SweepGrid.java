@@ -0,0 +1,62 @@
+package org.schimodie.stats;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+// Parameter grid of a strategy sweep. Unset parameters default to the configuration GamblingSim.main always used
+@Getter
+public class SweepGrid {
+    public static final List<Double> DEFAULT_PERCENTS = IntStream.rangeClosed(0, 20)
+            .mapToObj(i -> i > 0 ? 5.0 * i : 1.0)
+            .toList();
+    public static final int DEFAULT_ITERATIONS = 1_000_000;
+
+    private final List<Double> percents;
+    private final List<Double> coinHeadProbabilities;
+    private final List<Double> minCapitalCaps;
+    private final List<Double> maxCapitalCaps;
+    private final List<Integer> numRounds;
+    private final double startingCapital;
+    private final int numIterations;
+
+    @Builder
+    private SweepGrid(List<Double> percents, List<Double> coinHeadProbabilities, List<Double> minCapitalCaps,
+            List<Double> maxCapitalCaps, List<Integer> numRounds, Double startingCapital, Integer numIterations) {
+        this.percents = List.copyOf(Objects.requireNonNullElse(percents, DEFAULT_PERCENTS)).stream()
+                .sorted()
+                .distinct()
+                .toList();
+        this.coinHeadProbabilities = List.copyOf(Objects.requireNonNullElse(coinHeadProbabilities, List.of(0.6)));
+        this.minCapitalCaps = List.copyOf(Objects.requireNonNullElse(minCapitalCaps, List.of(0.0)));
+        this.maxCapitalCaps = List.copyOf(Objects.requireNonNullElse(maxCapitalCaps, List.of(250.0)));
+        this.numRounds = List.copyOf(Objects.requireNonNullElse(numRounds, List.of(100)));
+        this.startingCapital = Objects.requireNonNullElse(startingCapital, 25.0);
+        this.numIterations = Objects.requireNonNullElse(numIterations, DEFAULT_ITERATIONS);
+
+        if (this.percents.isEmpty()) {
+            throw new IllegalArgumentException("'percents' should not be empty");
+        }
+    }
+
+    // Every combination of everything but the percent; the percents of a group are simulated together on the same
+    // coin flips
+    public List<SimulationConfig> configurations() {
+        List<SimulationConfig> configurations = new ArrayList<>();
+        for (double coinHeadProbability : coinHeadProbabilities) {
+            for (double minCapitalCap : minCapitalCaps) {
+                for (double maxCapitalCap : maxCapitalCaps) {
+                    for (int rounds : numRounds) {
+                        configurations.add(new SimulationConfig(numIterations, rounds, startingCapital,
+                                minCapitalCap, maxCapitalCap, coinHeadProbability));
+                    }
+                }
+            }
+        }
+        return configurations;
+    }
+}
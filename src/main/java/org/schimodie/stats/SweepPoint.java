@@ -0,0 +1,20 @@
+package org.schimodie.stats;
+
+import java.util.List;
+
+// One row of the sweep table. The expected log-capital comes from the exact solver, the rest from the simulation
+public record SweepPoint(double percent, SimulationConfig config, boolean refined, double meanCapital,
+        double capitalStandardDeviation, double medianCapital, double meanRounds, double expectedLogCapital) {
+    static final List<String> COLUMNS = List.of("percent", "coin_head_probability", "min_capital_cap",
+            "max_capital_cap", "rounds", "starting_capital", "iterations", "refined", "mean_capital",
+            "capital_std", "median_capital", "mean_rounds", "expected_log_capital");
+
+    List<String> values() {
+        return List.of(String.valueOf(percent), String.valueOf(config.coinHeadProbability()),
+                String.valueOf(config.minCapitalCap()), String.valueOf(config.maxCapitalCap()),
+                String.valueOf(config.numRounds()), String.valueOf(config.startingCapital()),
+                String.valueOf(config.numIterations()), String.valueOf(refined), String.valueOf(meanCapital),
+                String.valueOf(capitalStandardDeviation), String.valueOf(medianCapital), String.valueOf(meanRounds),
+                String.valueOf(expectedLogCapital));
+    }
+}
@@ -0,0 +1,91 @@
+package org.schimodie.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleUnaryOperator;
+
+// Discrete distribution given as outcomes and their probabilities. Percentiles are the smallest outcome whose
+// cumulative probability reaches the percentile, except p000 and p100, which are the extremes of the support. The
+// sampled percentiles use the rank Math.round(q * (n - 1)) instead, which tends to the same outcome as n grows but
+// may pick a neighbouring one when the cumulative probability is within about 1 / n of the percentile
+public class WeightedDistribution {
+    private final TreeMap<Double, Double> probabilities = new TreeMap<>();
+
+    public void add(double value, double probability) {
+        if (probability > 0.0) {
+            probabilities.merge(value, probability, Double::sum);
+        }
+    }
+
+    public int size() {
+        return probabilities.size();
+    }
+
+    public double getTotalProbability() {
+        double totalProbability = 0.0;
+        for (double probability : probabilities.values()) {
+            totalProbability += probability;
+        }
+        return totalProbability;
+    }
+
+    public double getMean() {
+        double mean = 0.0;
+        for (Map.Entry<Double, Double> entry : probabilities.entrySet()) {
+            mean += entry.getKey() * entry.getValue();
+        }
+        return mean / getTotalProbability();
+    }
+
+    public double getExpectation(DoubleUnaryOperator function) {
+        double expectation = 0.0;
+        for (Map.Entry<Double, Double> entry : probabilities.entrySet()) {
+            expectation += function.applyAsDouble(entry.getKey()) * entry.getValue();
+        }
+        return expectation / getTotalProbability();
+    }
+
+    public double getVariance() {
+        double mean = getMean();
+        double variance = 0.0;
+        for (Map.Entry<Double, Double> entry : probabilities.entrySet()) {
+            variance += (entry.getKey() - mean) * (entry.getKey() - mean) * entry.getValue();
+        }
+        return variance / getTotalProbability();
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getQuantile(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0) {
+            throw new IllegalArgumentException("'quantile' should be between 0 and 1");
+        }
+        if (probabilities.isEmpty()) {
+            return Double.NaN;
+        }
+        if (quantile == 0.0) {
+            return probabilities.firstKey();
+        }
+
+        double target = quantile * getTotalProbability();
+        double cumulativeProbability = 0.0;
+        for (Map.Entry<Double, Double> entry : probabilities.entrySet()) {
+            cumulativeProbability += entry.getValue();
+            if (cumulativeProbability >= target) {
+                return entry.getKey();
+            }
+        }
+        return probabilities.lastKey();
+    }
+
+    @Override
+    public String toString() {
+        double[] percentiles = new double[GamblingSim.Stats.PERCENTILES.length];
+        for (int i = 0; i < percentiles.length; ++i) {
+            percentiles[i] = getQuantile(GamblingSim.Stats.PERCENTILES[i]);
+        }
+        return GamblingSim.Stats.format("outcomes", size(), getMean(), getStandardDeviation(), getVariance(), percentiles);
+    }
+}
@@ -0,0 +1,144 @@
+package org.schimodie.albums_to_listen_to;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schimodie.albums_to_listen_to.bean.Album;
+import org.schimodie.albums_to_listen_to.database.DownloadCheckpoint;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AlbumsDownloaderTest {
+    private static final int PAGE_SIZE = 4;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void binarySearchStopsOnTheFirstPage() {
+        FakeMetalstormScraper scraper = new FakeMetalstormScraper(PAGE_SIZE, 40);
+
+        List<Album> albums = download(scraper, AlbumsDownloader.CutoffSearch.BINARY, 1,
+                FakeMetalstormScraper.dateOf(2));
+
+        assertThat(albums).extracting(Album::getAlbumId).containsExactly("0", "1", "2", "3");
+        assertThat(scraper.getFetchedPages()).containsExactly(1);
+    }
+
+    // The cutoff falls between the last album of page 3 and the first of page 4, so page 4 is the last one needed
+    @Test
+    void binarySearchHandlesACutoffOnAPageBoundary() {
+        FakeMetalstormScraper scraper = new FakeMetalstormScraper(PAGE_SIZE, 40);
+
+        List<Album> albums = download(scraper, AlbumsDownloader.CutoffSearch.BINARY, 2,
+                FakeMetalstormScraper.dateOf(3 * PAGE_SIZE - 1).minusSeconds(1));
+
+        assertThat(albums).extracting(Album::getAlbumId)
+                .containsExactlyElementsOf(ids(0, 4 * PAGE_SIZE));
+    }
+
+    @Test
+    void binarySearchHandlesAnEmptyListing() {
+        FakeMetalstormScraper scraper = new FakeMetalstormScraper(PAGE_SIZE, 0);
+
+        assertThat(download(scraper, AlbumsDownloader.CutoffSearch.BINARY, 2, FakeMetalstormScraper.NEWEST_DATE))
+                .isEmpty();
+        assertThat(scraper.getFetchedPages()).containsExactly(1);
+    }
+
+    @Test
+    void binarySearchReadsEverythingWhenTheCutoffIsBeyondTheLastPage() {
+        FakeMetalstormScraper scraper = new FakeMetalstormScraper(PAGE_SIZE, 37);
+
+        List<Album> albums = download(scraper, AlbumsDownloader.CutoffSearch.BINARY, 3,
+                FakeMetalstormScraper.dateOf(1_000));
+
+        assertThat(albums).extracting(Album::getAlbumId).containsExactlyElementsOf(ids(0, 37));
+    }
+
+    @Test
+    void binarySearchAgreesWithTheLinearScan() {
+        for (int cutoffIndex = 0; cutoffIndex < 45; ++cutoffIndex) {
+            Instant cutoff = FakeMetalstormScraper.dateOf(cutoffIndex);
+
+            List<Album> linear = download(new FakeMetalstormScraper(PAGE_SIZE, 41),
+                    AlbumsDownloader.CutoffSearch.LINEAR, 1, cutoff);
+            List<Album> binary = download(new FakeMetalstormScraper(PAGE_SIZE, 41),
+                    AlbumsDownloader.CutoffSearch.BINARY, 2, cutoff);
+
+            assertThat(binary).as("cutoff at album %d", cutoffIndex).extracting(Album::getAlbumId)
+                    .containsExactlyElementsOf(linear.stream().map(Album::getAlbumId).toList());
+        }
+    }
+
+    @Test
+    void concurrentDownloadKeepsThePageOrder() {
+        FakeMetalstormScraper scraper = new FakeMetalstormScraper(PAGE_SIZE, 60).delayPages();
+
+        List<Album> albums = download(scraper, AlbumsDownloader.CutoffSearch.LINEAR, 4,
+                FakeMetalstormScraper.dateOf(50));
+
+        assertThat(albums).extracting(Album::getAlbumId).containsExactlyElementsOf(ids(0, 13 * PAGE_SIZE));
+    }
+
+    @Test
+    void resumesFromTheCheckpointWhileTheListingIsUnchanged() {
+        FakeMetalstormScraper scraper = new FakeMetalstormScraper(PAGE_SIZE, 40);
+        Instant cutoff = FakeMetalstormScraper.dateOf(30);
+        scraper.failFromPage(5);
+        assertThatThrownBy(() -> download(scraper, AlbumsDownloader.CutoffSearch.LINEAR, 1, cutoff))
+                .isInstanceOf(IllegalStateException.class);
+
+        scraper.failFromPage(Integer.MAX_VALUE);
+        scraper.getFetchedPages().clear();
+        List<Album> albums = download(scraper, AlbumsDownloader.CutoffSearch.LINEAR, 1, cutoff);
+
+        assertThat(albums).extracting(Album::getAlbumId).containsExactlyElementsOf(ids(0, 8 * PAGE_SIZE));
+        assertThat(scraper.getFetchedPages()).containsExactly(1, 5, 6, 7, 8);
+    }
+
+    // Albums published between the crash and the resume push everything down, so the saved pages are useless
+    @Test
+    void resumeAfterTheListingShiftedHasNoDuplicatesOrGaps() {
+        FakeMetalstormScraper scraper = new FakeMetalstormScraper(PAGE_SIZE, 40);
+        Instant cutoff = FakeMetalstormScraper.dateOf(30);
+        scraper.failFromPage(5);
+        assertThatThrownBy(() -> download(scraper, AlbumsDownloader.CutoffSearch.LINEAR, 1, cutoff))
+                .isInstanceOf(IllegalStateException.class);
+
+        scraper.failFromPage(Integer.MAX_VALUE);
+        scraper.publish("new 1", FakeMetalstormScraper.NEWEST_DATE.plusSeconds(60));
+        scraper.publish("new 2", FakeMetalstormScraper.NEWEST_DATE.plusSeconds(120));
+        List<Album> albums = download(scraper, AlbumsDownloader.CutoffSearch.LINEAR, 2, cutoff);
+
+        List<String> expectedIds = new ArrayList<>(List.of("new 2", "new 1"));
+        expectedIds.addAll(ids(0, 34));
+        assertThat(albums).extracting(Album::getAlbumId).containsExactlyElementsOf(expectedIds);
+    }
+
+    private List<Album> download(FakeMetalstormScraper scraper, AlbumsDownloader.CutoffSearch cutoffSearch,
+            int concurrency, Instant cutoff) {
+        AlbumsDownloader downloader = AlbumsDownloader.builder()
+                .fileNamePrefix("albums")
+                .afterDate(cutoff)
+                .concurrency(concurrency)
+                .cutoffSearch(cutoffSearch)
+                .scraperFactory(() -> scraper)
+                .build();
+
+        try (DownloadCheckpoint checkpoint = DownloadCheckpoint.open(
+                tempDir.resolve(cutoffSearch + "-" + cutoff.getEpochSecond() + ".checkpoint").toFile(), cutoff)) {
+            return downloader.download(cutoff, checkpoint);
+        }
+    }
+
+    private static List<String> ids(int from, int to) {
+        return IntStream.range(from, to).mapToObj(String::valueOf).toList();
+    }
+}
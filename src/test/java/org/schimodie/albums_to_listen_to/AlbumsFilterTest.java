@@ -0,0 +1,156 @@
+package org.schimodie.albums_to_listen_to;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schimodie.albums_to_listen_to.bean.Album;
+import org.schimodie.albums_to_listen_to.client.LastFMClient;
+import org.schimodie.albums_to_listen_to.client.LastFMUserLibrary;
+import org.schimodie.albums_to_listen_to.database.LastFMResponseCache;
+import org.schimodie.albums_to_listen_to.filter.FilterRules;
+import org.schimodie.common.data.Tuple2;
+import org.schimodie.common.utils.RetryableException;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AlbumsFilterTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final List<Album> ALBUMS = IntStream.range(0, 12)
+            .mapToObj(i -> Album.builder()
+                    .album("Album " + i)
+                    .albumId(String.valueOf(i))
+                    .artists(List.of("Artist"))
+                    .artistIds(List.of("1"))
+                    .genre("Heavy")
+                    .type("Studio")
+                    .rating(8.0)
+                    .votes(100)
+                    .build())
+            .toList();
+
+    @TempDir
+    private Path tempDir;
+
+    private LastFMClient lastFMClient;
+
+    @BeforeEach
+    void setUp() {
+        lastFMClient = mock(LastFMClient.class);
+        // Even albums have been listened to
+        when(lastFMClient.getAlbumInfo(anyString(), anyString())).thenAnswer(invocation -> albumInfo(
+                invocation.getArgument(1)));
+        when(lastFMClient.getAlbumInfoAsync(anyString(), anyString())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> lastFMClient.getAlbumInfo(invocation.getArgument(0),
+                        invocation.getArgument(1))));
+    }
+
+    @Test
+    void keepsTheAlbumsWithoutListens() {
+        Tuple2<List<Album>, List<Album>> result = filter(AlbumsFilter.LookupMode.SEQUENTIAL);
+
+        assertThat(result.t1()).extracting(Album::getAlbumId).containsExactly("1", "3", "5", "7", "9", "11");
+        assertThat(result.t2()).isEmpty();
+    }
+
+    @Test
+    void failedLookupsBecomeProblemAlbumsInInputOrder() {
+        doAnswer(invocation -> {
+            int index = Integer.parseInt(invocation.<String>getArgument(1).substring("Album ".length()));
+            // Later albums answer first, so completion order is the reverse of the input order
+            Thread.sleep((12 - index) * 5L);
+            if (index % 3 == 0) {
+                throw new RetryableException("Reached the maximum number of retries (4)");
+            }
+            return albumInfo(invocation.getArgument(1));
+        }).when(lastFMClient).getAlbumInfo(anyString(), anyString());
+
+        for (AlbumsFilter.LookupMode lookupMode : AlbumsFilter.LookupMode.values()) {
+            Tuple2<List<Album>, List<Album>> result = filter(lookupMode);
+
+            assertThat(result.t1()).as("%s", lookupMode).extracting(Album::getAlbumId)
+                    .containsExactly("1", "5", "7", "11");
+            assertThat(result.t2()).as("%s", lookupMode).extracting(Album::getAlbumId)
+                    .containsExactly("0", "3", "6", "9");
+        }
+    }
+
+    @Test
+    void asyncLookupsStayWithinTheConcurrencyLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> lastFMClient.getAlbumInfo(invocation.getArgument(0),
+                            invocation.getArgument(1)), CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS))
+                    .whenComplete((_, _) -> inFlight.decrementAndGet());
+        }).when(lastFMClient).getAlbumInfoAsync(anyString(), anyString());
+
+        Tuple2<List<Album>, List<Album>> result = filter(AlbumsFilter.LookupMode.ASYNC);
+
+        assertThat(result.t1()).extracting(Album::getAlbumId).containsExactly("1", "3", "5", "7", "9", "11");
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+    }
+
+    // Album 0 is in the library, Albums 2 and 3 look like library albums under another spelling, and the rest are
+    // missing from it, so they have no plays
+    @Test
+    void theLibraryOnlyLeavesTheAlbumsItCannotSettleToLookups() {
+        LastFMUserLibrary userLibrary = mock(LastFMUserLibrary.class);
+        when(userLibrary.getPlayCount(anyString(), anyString())).thenReturn(OptionalInt.empty());
+        when(userLibrary.getPlayCount("Artist", "Album 0")).thenReturn(OptionalInt.of(5));
+        when(userLibrary.mayContain("Artist", "Album 2")).thenReturn(true);
+        when(userLibrary.mayContain("Artist", "Album 3")).thenReturn(true);
+        when(lastFMClient.loadUserLibrary()).thenReturn(userLibrary);
+
+        Tuple2<List<Album>, List<Album>> result = filter(AlbumsFilter.LookupMode.SEQUENTIAL,
+                AlbumsFilter.PlayCountSource.USER_LIBRARY);
+
+        assertThat(result.t1()).extracting(Album::getAlbumId)
+                .containsExactly("1", "3", "4", "5", "6", "7", "8", "9", "10", "11");
+        verify(lastFMClient).getAlbumInfo("Artist", "Album 2");
+        verify(lastFMClient).getAlbumInfo("Artist", "Album 3");
+        verify(lastFMClient, never()).getAlbumInfo("Artist", "Album 4");
+    }
+
+    @Test
+    void fallsBackToPerAlbumLookupsWhenTheLibraryIsUnavailable() {
+        when(lastFMClient.loadUserLibrary()).thenThrow(new RetryableException("Retry budget exhausted"));
+
+        Tuple2<List<Album>, List<Album>> result = filter(AlbumsFilter.LookupMode.SEQUENTIAL,
+                AlbumsFilter.PlayCountSource.USER_LIBRARY);
+
+        assertThat(result.t1()).extracting(Album::getAlbumId).containsExactly("1", "3", "5", "7", "9", "11");
+    }
+
+    private Tuple2<List<Album>, List<Album>> filter(AlbumsFilter.LookupMode lookupMode) {
+        return filter(lookupMode, AlbumsFilter.PlayCountSource.ALBUM_INFO);
+    }
+
+    private Tuple2<List<Album>, List<Album>> filter(AlbumsFilter.LookupMode lookupMode,
+            AlbumsFilter.PlayCountSource playCountSource) {
+        return new AlbumsFilter(ALBUMS, lookupMode, 3, playCountSource,
+                FilterRules.defaults(), lastFMClient,
+                LastFMResponseCache.open(tempDir.resolve("cache.json").toFile())).filter();
+    }
+
+    private static JsonNode albumInfo(String album) throws Exception {
+        int index = Integer.parseInt(album.substring("Album ".length()));
+        return OBJECT_MAPPER.readTree("{\"album\":{\"userplaycount\":" + (index % 2 == 0 ? 7 : 0) + "}}");
+    }
+}
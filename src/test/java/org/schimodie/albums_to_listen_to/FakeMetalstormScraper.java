@@ -0,0 +1,100 @@
+package org.schimodie.albums_to_listen_to;
+
+import org.schimodie.albums_to_listen_to.bean.Album;
+import org.schimodie.albums_to_listen_to.client.MetalstormScraper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Date ordered listing served in pages like the Metalstorm album list; albums come back without a date, which is
+// only known to getAlbumDate
+class FakeMetalstormScraper implements MetalstormScraper {
+    static final Instant NEWEST_DATE = Instant.parse("2025-08-01T00:00:00Z");
+
+    private final int pageSize;
+    private final List<Album> listing;
+    private final Map<String, Instant> dates;
+    private final List<Integer> fetchedPages;
+
+    private boolean delaysPages;
+    private int failingPage = Integer.MAX_VALUE;
+
+    FakeMetalstormScraper(int pageSize, int albums) {
+        this.pageSize = pageSize;
+        this.listing = new CopyOnWriteArrayList<>();
+        this.dates = new ConcurrentHashMap<>();
+        this.fetchedPages = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < albums; ++i) {
+            listing.add(album(String.valueOf(i), dateOf(i)));
+        }
+    }
+
+    // Album i of the initial listing is released i days before NEWEST_DATE
+    static Instant dateOf(int index) {
+        return NEWEST_DATE.minusSeconds(86_400L * index);
+    }
+
+    // New releases go on top and push every older album down the pages
+    void publish(String albumId, Instant date) {
+        listing.addFirst(album(albumId, date));
+    }
+
+    // Later pages may answer before earlier ones, like concurrent requests do
+    FakeMetalstormScraper delayPages() {
+        delaysPages = true;
+        return this;
+    }
+
+    // Simulates a crash of the download once it reaches the page
+    void failFromPage(int page) {
+        failingPage = page;
+    }
+
+    List<Integer> getFetchedPages() {
+        return fetchedPages;
+    }
+
+    @Override
+    public List<Album> getAlbums(int pageNumber) {
+        if (pageNumber >= failingPage) {
+            throw new IllegalStateException("Metalstorm went away");
+        }
+
+        fetchedPages.add(pageNumber);
+        if (delaysPages) {
+            try {
+                Thread.sleep(pageNumber * 7 % 5 * 5L);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        int from = Math.min((pageNumber - 1) * pageSize, listing.size());
+        int to = Math.min(pageNumber * pageSize, listing.size());
+
+        List<Album> page = new ArrayList<>();
+        for (Album album : listing.subList(from, to)) {
+            page.add(Album.builder().album(album.getAlbum()).albumId(album.getAlbumId()).build());
+        }
+        return page;
+    }
+
+    @Override
+    public Instant getAlbumDate(String albumId) {
+        return dates.get(albumId);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Album album(String albumId, Instant date) {
+        dates.put(albumId, date);
+        return Album.builder().album("Album " + albumId).albumId(albumId).build();
+    }
+}
@@ -0,0 +1,24 @@
+package org.schimodie.albums_to_listen_to.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class LastFMClientTest {
+    @Test
+    void retriesTransportErrorsOnly() {
+        Throwable malformedResponse = catchThrowable(() -> new ObjectMapper().readTree("<html>Bad gateway"));
+
+        assertThat(malformedResponse).isInstanceOf(JsonParseException.class);
+        assertThat(LastFMClient.isRetriable(malformedResponse)).isFalse();
+        assertThat(LastFMClient.isRetriable(new IOException("Unexpected status code 503"))).isTrue();
+        assertThat(LastFMClient.isRetriable(new HttpTimeoutException("request timed out"))).isTrue();
+        assertThat(LastFMClient.isRetriable(new IllegalStateException())).isFalse();
+    }
+}
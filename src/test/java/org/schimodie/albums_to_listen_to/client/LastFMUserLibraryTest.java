@@ -0,0 +1,104 @@
+package org.schimodie.albums_to_listen_to.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LastFMUserLibraryTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void pagesThroughTheWholeLibrary() {
+        List<Integer> requestedPages = new ArrayList<>();
+
+        LastFMUserLibrary userLibrary = LastFMUserLibrary.load(page -> {
+            requestedPages.add(page);
+            return page == 1
+                    ? topAlbums(1, 2, album("Opeth", "Blackwater Park", 42))
+                    : topAlbums(2, 2, album("Motörhead", "Ace of Spades", 7));
+        });
+
+        assertThat(requestedPages).containsExactly(1, 2);
+        assertThat(userLibrary.size()).isEqualTo(2);
+        assertThat(userLibrary.getPlayCount("Opeth", "Blackwater Park")).hasValue(42);
+        assertThat(userLibrary.getPlayCount("Motörhead", "Ace of Spades")).hasValue(7);
+        assertThat(userLibrary.getPlayCount("Opeth", "Damnation")).isEmpty();
+    }
+
+    @Test
+    void lookupsIgnoreCaseAndWhitespace() {
+        LastFMUserLibrary userLibrary = LastFMUserLibrary.load(
+                _ -> topAlbums(1, 1, album("Blind  Guardian", "Nightfall in Middle-Earth ", 3)));
+
+        assertThat(userLibrary.getPlayCount("blind guardian", "NIGHTFALL IN MIDDLE-EARTH")).hasValue(3);
+    }
+
+    @Test
+    void stopsPagingOnAnEmptyPage() {
+        List<Integer> requestedPages = new ArrayList<>();
+
+        LastFMUserLibrary userLibrary = LastFMUserLibrary.load(page -> {
+            requestedPages.add(page);
+            return page == 1 ? topAlbums(1, 10, album("Emperor", "Anthems", 1)) : topAlbums(page, 10);
+        });
+
+        assertThat(requestedPages).containsExactly(1, 2);
+        assertThat(userLibrary.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsThePagesLoadedBeforeAnError() {
+        LastFMUserLibrary userLibrary = LastFMUserLibrary.load(page -> {
+            try {
+                return page == 1
+                        ? topAlbums(1, 3, album("Emperor", "Anthems", 1))
+                        : OBJECT_MAPPER.readTree("{\"error\":8,\"message\":\"Operation failed\"}");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertThat(userLibrary.size()).isEqualTo(1);
+        assertThat(userLibrary.getPlayCount("Emperor", "Anthems")).hasValue(1);
+    }
+
+    @Test
+    void onlyMissesThatLookLikeALibraryAlbumMayBeInIt() {
+        LastFMUserLibrary userLibrary = LastFMUserLibrary.load(
+                _ -> topAlbums(1, 1, album("Blind Guardian", "Nightfall in Middle-Earth (Remastered)", 3)));
+
+        assertThat(userLibrary.isComplete()).isTrue();
+        assertThat(userLibrary.getPlayCount("Blind Guardian", "Nightfall in Middle Earth")).isEmpty();
+        assertThat(userLibrary.mayContain("Blind Guardian", "Nightfall in Middle Earth")).isTrue();
+        assertThat(userLibrary.mayContain("Blind Guardian", "Imaginations from the Other Side")).isFalse();
+    }
+
+    @Test
+    void aPartlyLoadedLibraryMayContainAnything() {
+        LastFMUserLibrary userLibrary = LastFMUserLibrary.load(
+                page -> page == 1 ? topAlbums(1, 3, album("Emperor", "Anthems", 1)) : topAlbums(page, 3));
+
+        assertThat(userLibrary.isComplete()).isFalse();
+        assertThat(userLibrary.mayContain("Opeth", "Damnation")).isTrue();
+    }
+
+    private static JsonNode topAlbums(int page, int totalPages, String... albums) {
+        try {
+            return OBJECT_MAPPER.readTree(String.format(
+                    "{\"topalbums\":{\"album\":[%s],\"@attr\":{\"page\":\"%d\",\"totalPages\":\"%d\"}}}",
+                    String.join(",", albums), page, totalPages));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String album(String artist, String name, int playCount) {
+        return String.format("{\"name\":\"%s\",\"playcount\":\"%d\",\"artist\":{\"name\":\"%s\"}}",
+                name, playCount, artist);
+    }
+}
@@ -21,7 +21,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.schimodie.albums_to_listen_to.bean.Album;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -29,13 +31,17 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.withinPercentage;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.schimodie.albums_to_listen_to.client.MetalstormClient.ALBUM_DATE_SELECTOR;
 import static org.schimodie.albums_to_listen_to.client.MetalstormClient.ALBUM_ROWS_SELECTOR;
+import static org.schimodie.albums_to_listen_to.client.MetalstormClient.EXTRACT_ALBUM_ROWS_SCRIPT;
 
 @ExtendWith(MockitoExtension.class)
 class MetalstormClientTest {
@@ -44,8 +50,6 @@ class MetalstormClientTest {
     private static final String FILTER_URL = BASE_URL + "bands/albums.php?filter_show_invisible=1&show_invisible_submit=1";
     private static final String ALBUMS_PAGE_URL = BASE_URL + "bands/albums.php?page=";
     private static final String ALBUM_DETAIL_URL = BASE_URL + "bands/album.php?album_id=";
-    private static final String TD_SELECTOR = "td";
-    private static final String A_SELECTOR = "a";
     private static final String TEST_ARTIST = "Test Artist";
     private static final String TEST_ALBUM = "Test Album";
     private static final String ARTIST_ONE = "Artist One";
@@ -108,175 +112,65 @@ class MetalstormClientTest {
         lenient().doNothing().when(mockPlaywright).close();
     }
 
-    private ElementHandle createMockAlbumRow() {
-        ElementHandle mockRow = mock(ElementHandle.class);
-        List<ElementHandle> columns = createMockColumns();
-        when(mockRow.querySelectorAll(TD_SELECTOR)).thenReturn(columns);
-        return mockRow;
+    private void whenRowsExtracted(List<Map<String, Object>> rows) {
+        when(mockPage.evalOnSelectorAll(eq(ALBUM_ROWS_SELECTOR), eq(EXTRACT_ALBUM_ROWS_SCRIPT))).thenReturn(rows);
     }
 
-    private List<ElementHandle> createMockColumns() {
-        // Create 8 columns as required by MetalstormClient
-        return List.of(
-                mock(ElementHandle.class), // column 0
-                mock(ElementHandle.class), // column 1
-                createMockArtistAlbumColumn(), // column 2 - artist/album
-                mock(ElementHandle.class), // column 3
-                createMockColumn(FULL_LENGTH), // column 4 - type
-                createMockColumn(METAL), // column 5 - genre
-                createMockRatingColumn(), // column 6 - rating
-                createMockColumn("50") // column 7 - votes
-        );
-    }
-
-    private ElementHandle createMockArtistAlbumColumn() {
-        ElementHandle column = mock(ElementHandle.class);
-
-        ElementHandle artistLink = mock(ElementHandle.class);
-        when(artistLink.getAttribute("href")).thenReturn(BAND_HREF + "12345");
-        when(artistLink.innerText()).thenReturn(TEST_ARTIST);
-
-        ElementHandle albumLink = mock(ElementHandle.class);
-        when(albumLink.getAttribute("href")).thenReturn(ALBUM_HREF + "67890");
-        when(albumLink.innerText()).thenReturn(TEST_ALBUM);
-
-        when(column.querySelectorAll(A_SELECTOR)).thenReturn(List.of(artistLink, albumLink));
-        return column;
-    }
-
-    private ElementHandle createMockRatingColumn() {
-        ElementHandle column = mock(ElementHandle.class);
-        ElementHandle ratingLink = mock(ElementHandle.class);
-        when(ratingLink.innerText()).thenReturn("8.5");
-        when(column.querySelectorAll(A_SELECTOR)).thenReturn(List.of(ratingLink));
-        return column;
-    }
-
-    private ElementHandle createMockColumn(String text) {
-        ElementHandle column = mock(ElementHandle.class);
-        when(column.innerText()).thenReturn(text);
-        return column;
-    }
-
-    private ElementHandle createMockRowWithInsufficientColumns() {
-        ElementHandle mockRow = mock(ElementHandle.class);
-        List<ElementHandle> insufficientColumns = List.of(
-                mock(ElementHandle.class),
-                mock(ElementHandle.class),
-                mock(ElementHandle.class)  // Only 3 columns, need at least 8
-        );
-        when(mockRow.querySelectorAll(TD_SELECTOR)).thenReturn(insufficientColumns);
-        return mockRow;
+    private Map<String, Object> createMockAlbumRow() {
+        return createMockRow(8, createMockArtistAndAlbumLinks(), FULL_LENGTH, METAL, "8.5", "50");
     }
 
-    private ElementHandle createMockRowWithMissingAlbum() {
-        ElementHandle mockRow = mock(ElementHandle.class);
-        List<ElementHandle> columns = List.of(
-                mock(ElementHandle.class), mock(ElementHandle.class),
-                createMockColumnWithOnlyArtist(), // missing album link
-                mock(ElementHandle.class), mock(ElementHandle.class),
-                mock(ElementHandle.class), mock(ElementHandle.class), mock(ElementHandle.class)
-        );
-        when(mockRow.querySelectorAll(TD_SELECTOR)).thenReturn(columns);
-        return mockRow;
+    private Map<String, Object> createMockRow(int columnCount, List<Map<String, Object>> links, String type,
+            String genre, String rating, String votes) {
+        // Mirrors the structure returned by EXTRACT_ALBUM_ROWS_SCRIPT
+        Map<String, Object> row = new HashMap<>();
+        row.put("columnCount", columnCount);
+        row.put("links", links);
+        row.put("type", type);
+        row.put("genre", genre);
+        row.put("rating", rating);
+        row.put("votes", votes);
+        return row;
     }
 
-    private ElementHandle createMockColumnWithOnlyArtist() {
-        ElementHandle column = mock(ElementHandle.class);
-        ElementHandle artistLink = mock(ElementHandle.class);
-        when(artistLink.getAttribute("href")).thenReturn(BAND_HREF + "12345");
-        when(artistLink.innerText()).thenReturn(TEST_ARTIST);
-        when(column.querySelectorAll(A_SELECTOR)).thenReturn(List.of(artistLink));
-        return column;
+    private Map<String, Object> createMockLink(String href, String text) {
+        return Map.of("href", href, "text", text);
     }
 
-    private ElementHandle createMockRowWithInvalidRating() {
-        ElementHandle mockRow = mock(ElementHandle.class);
-        List<ElementHandle> columns = List.of(
-                mock(ElementHandle.class), mock(ElementHandle.class), createMockArtistAlbumColumn(),
-                mock(ElementHandle.class), createMockColumn(FULL_LENGTH), createMockColumn(METAL),
-                createMockInvalidRatingColumn(), createMockColumn("50")
-        );
-        when(mockRow.querySelectorAll(TD_SELECTOR)).thenReturn(columns);
-        return mockRow;
+    private List<Map<String, Object>> createMockArtistAndAlbumLinks() {
+        return List.of(
+                createMockLink(BAND_HREF + "12345", TEST_ARTIST),
+                createMockLink(ALBUM_HREF + "67890", TEST_ALBUM));
     }
 
-    private ElementHandle createMockInvalidRatingColumn() {
-        ElementHandle column = mock(ElementHandle.class);
-        ElementHandle ratingLink = mock(ElementHandle.class);
-        when(ratingLink.innerText()).thenReturn(INVALID);
-        when(column.querySelectorAll(A_SELECTOR)).thenReturn(List.of(ratingLink));
-        return column;
+    private Map<String, Object> createMockRowWithInsufficientColumns() {
+        // Only 3 columns, need at least 8
+        return createMockRow(3, List.of(), null, null, null, null);
     }
 
-    private ElementHandle createMockRowWithInvalidVotes() {
-        ElementHandle mockRow = mock(ElementHandle.class);
-        List<ElementHandle> columns = List.of(
-                mock(ElementHandle.class), mock(ElementHandle.class), createMockArtistAlbumColumn(),
-                mock(ElementHandle.class), createMockColumn(FULL_LENGTH), createMockColumn(METAL),
-                createMockRatingColumn(), createMockColumn(INVALID)
-        );
-        when(mockRow.querySelectorAll(TD_SELECTOR)).thenReturn(columns);
-        return mockRow;
+    private Map<String, Object> createMockRowWithMissingAlbum() {
+        // missing album link
+        return createMockRow(8, List.of(createMockLink(BAND_HREF + "12345", TEST_ARTIST)), "", "", null, "");
     }
 
-    private ElementHandle createMockAlbumRowWithMultipleArtists() {
-        ElementHandle mockRow = mock(ElementHandle.class);
-        List<ElementHandle> columns = List.of(
-                mock(ElementHandle.class), // column 0
-                mock(ElementHandle.class), // column 1
-                createMockArtistAlbumColumnWithMultipleArtists(), // column 2 - multiple artists/album
-                mock(ElementHandle.class), // column 3
-                createMockColumn(FULL_LENGTH), // column 4 - type
-                createMockColumn(METAL), // column 5 - genre
-                createMockRatingColumn(), // column 6 - rating
-                createMockColumn("50") // column 7 - votes
-        );
-        when(mockRow.querySelectorAll(TD_SELECTOR)).thenReturn(columns);
-        return mockRow;
+    private Map<String, Object> createMockRowWithInvalidRating() {
+        return createMockRow(8, createMockArtistAndAlbumLinks(), FULL_LENGTH, METAL, INVALID, "50");
     }
 
-    private ElementHandle createMockArtistAlbumColumnWithMultipleArtists() {
-        ElementHandle column = mock(ElementHandle.class);
-
-        ElementHandle artist1Link = mock(ElementHandle.class);
-        when(artist1Link.getAttribute("href")).thenReturn(BAND_HREF + "11111");
-        when(artist1Link.innerText()).thenReturn(ARTIST_ONE);
-
-        ElementHandle artist2Link = mock(ElementHandle.class);
-        when(artist2Link.getAttribute("href")).thenReturn(BAND_HREF + "22222");
-        when(artist2Link.innerText()).thenReturn(ARTIST_TWO);
-
-        ElementHandle albumLink = mock(ElementHandle.class);
-        when(albumLink.getAttribute("href")).thenReturn(ALBUM_HREF + "67890");
-        when(albumLink.innerText()).thenReturn(TEST_ALBUM);
-
-        when(column.querySelectorAll(A_SELECTOR)).thenReturn(List.of(artist1Link, artist2Link, albumLink));
-        return column;
+    private Map<String, Object> createMockRowWithInvalidVotes() {
+        return createMockRow(8, createMockArtistAndAlbumLinks(), FULL_LENGTH, METAL, "8.5", INVALID);
     }
 
-    private ElementHandle createMockAlbumRowWithZeroValues() {
-        ElementHandle mockRow = mock(ElementHandle.class);
-        List<ElementHandle> columns = List.of(
-                mock(ElementHandle.class), // column 0
-                mock(ElementHandle.class), // column 1
-                createMockArtistAlbumColumn(), // column 2 - artist/album
-                mock(ElementHandle.class), // column 3
-                createMockColumn(FULL_LENGTH), // column 4 - type
-                createMockColumn(METAL), // column 5 - genre
-                createMockZeroRatingColumn(), // column 6 - rating
-                createMockColumn("0") // column 7 - votes
-        );
-        when(mockRow.querySelectorAll(TD_SELECTOR)).thenReturn(columns);
-        return mockRow;
+    private Map<String, Object> createMockAlbumRowWithMultipleArtists() {
+        List<Map<String, Object>> links = List.of(
+                createMockLink(BAND_HREF + "11111", ARTIST_ONE),
+                createMockLink(BAND_HREF + "22222", ARTIST_TWO),
+                createMockLink(ALBUM_HREF + "67890", TEST_ALBUM));
+        return createMockRow(8, links, FULL_LENGTH, METAL, "8.5", "50");
     }
 
-    private ElementHandle createMockZeroRatingColumn() {
-        ElementHandle column = mock(ElementHandle.class);
-        ElementHandle ratingLink = mock(ElementHandle.class);
-        when(ratingLink.innerText()).thenReturn("0.0");
-        when(column.querySelectorAll(A_SELECTOR)).thenReturn(List.of(ratingLink));
-        return column;
+    private Map<String, Object> createMockAlbumRowWithZeroValues() {
+        return createMockRow(8, createMockArtistAndAlbumLinks(), FULL_LENGTH, METAL, "0.0", "0");
     }
 
     @Nested
@@ -299,8 +193,8 @@ class MetalstormClientTest {
         void testGetAlbumsReturnsAlbumList() {
             // Given
             int pageNumber = 1;
-            ElementHandle mockRow = createMockAlbumRow();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow));
+            Map<String, Object> mockRow = createMockAlbumRow();
+            whenRowsExtracted(List.of(mockRow));
 
             // When
             List<Album> albums = metalstormClient.getAlbums(pageNumber);
@@ -322,7 +216,7 @@ class MetalstormClientTest {
         void testGetAlbumsHandlesEmptyPage() {
             // Given
             int pageNumber = 999;
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of());
+            whenRowsExtracted(List.of());
 
             // When
             List<Album> albums = metalstormClient.getAlbums(pageNumber);
@@ -335,7 +229,7 @@ class MetalstormClientTest {
         @DisplayName("should set filter on first call")
         void testGetAlbumsSetFilterOnFirstCall() {
             // Given
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of());
+            whenRowsExtracted(List.of());
 
             // When
             metalstormClient.getAlbums(1);
@@ -350,9 +244,9 @@ class MetalstormClientTest {
         void testGetAlbumsHandlesMultipleAlbums() {
             // Given
             int pageNumber = 1;
-            ElementHandle mockRow1 = createMockAlbumRow();
-            ElementHandle mockRow2 = createMockAlbumRow();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow1, mockRow2));
+            Map<String, Object> mockRow1 = createMockAlbumRow();
+            Map<String, Object> mockRow2 = createMockAlbumRow();
+            whenRowsExtracted(List.of(mockRow1, mockRow2));
 
             // When
             List<Album> albums = metalstormClient.getAlbums(pageNumber);
@@ -370,12 +264,26 @@ class MetalstormClientTest {
             verify(mockPage).navigate(ALBUMS_PAGE_URL + pageNumber);
         }
 
+        @Test
+        @DisplayName("should extract all rows in a single browser round-trip")
+        void testGetAlbumsExtractsRowsInSingleRoundTrip() {
+            // Given
+            whenRowsExtracted(List.of(createMockAlbumRow(), createMockAlbumRowWithMultipleArtists()));
+
+            // When
+            metalstormClient.getAlbums(1);
+
+            // Then
+            verify(mockPage).evalOnSelectorAll(ALBUM_ROWS_SELECTOR, EXTRACT_ALBUM_ROWS_SCRIPT);
+            verify(mockPage, never()).querySelectorAll(anyString());
+        }
+
         @Test
         @DisplayName("should handle invalid row structure gracefully")
         void testGetAlbumsHandlesInvalidRowStructure() {
             // Given
-            ElementHandle mockRow = createMockRowWithInsufficientColumns();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow));
+            Map<String, Object> mockRow = createMockRowWithInsufficientColumns();
+            whenRowsExtracted(List.of(mockRow));
 
             // When & Then
             assertThatThrownBy(() -> metalstormClient.getAlbums(1))
@@ -387,8 +295,8 @@ class MetalstormClientTest {
         @DisplayName("should handle missing album link gracefully")
         void testGetAlbumsHandlesMissingAlbumLink() {
             // Given
-            ElementHandle mockRow = createMockRowWithMissingAlbum();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow));
+            Map<String, Object> mockRow = createMockRowWithMissingAlbum();
+            whenRowsExtracted(List.of(mockRow));
 
             // When & Then
             assertThatThrownBy(() -> metalstormClient.getAlbums(1))
@@ -400,8 +308,8 @@ class MetalstormClientTest {
         @DisplayName("should handle invalid rating gracefully")
         void testGetAlbumsHandlesInvalidRating() {
             // Given
-            ElementHandle mockRow = createMockRowWithInvalidRating();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow));
+            Map<String, Object> mockRow = createMockRowWithInvalidRating();
+            whenRowsExtracted(List.of(mockRow));
 
             // When
             List<Album> albums = metalstormClient.getAlbums(1);
@@ -415,8 +323,8 @@ class MetalstormClientTest {
         @DisplayName("should handle invalid votes gracefully")
         void testGetAlbumsHandlesInvalidVotes() {
             // Given
-            ElementHandle mockRow = createMockRowWithInvalidVotes();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow));
+            Map<String, Object> mockRow = createMockRowWithInvalidVotes();
+            whenRowsExtracted(List.of(mockRow));
 
             // When
             List<Album> albums = metalstormClient.getAlbums(1);
@@ -431,8 +339,8 @@ class MetalstormClientTest {
         void testGetAlbumsExtractsAllFields() {
             // Given
             int pageNumber = 1;
-            ElementHandle mockRow = createMockAlbumRow();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow));
+            Map<String, Object> mockRow = createMockAlbumRow();
+            whenRowsExtracted(List.of(mockRow));
 
             // Expected Album using Album.builder() with all fields
             Album expectedAlbum = Album.builder()
@@ -466,8 +374,8 @@ class MetalstormClientTest {
         void testGetAlbumsWithMultipleArtists() {
             // Given
             int pageNumber = 1;
-            ElementHandle mockRow = createMockAlbumRowWithMultipleArtists();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow));
+            Map<String, Object> mockRow = createMockAlbumRowWithMultipleArtists();
+            whenRowsExtracted(List.of(mockRow));
 
             // When
             List<Album> albums = metalstormClient.getAlbums(pageNumber);
@@ -485,8 +393,8 @@ class MetalstormClientTest {
         void testGetAlbumsWithZeroVotesAndRating() {
             // Given
             int pageNumber = 1;
-            ElementHandle mockRow = createMockAlbumRowWithZeroValues();
-            when(mockPage.querySelectorAll(ALBUM_ROWS_SELECTOR)).thenReturn(List.of(mockRow));
+            Map<String, Object> mockRow = createMockAlbumRowWithZeroValues();
+            whenRowsExtracted(List.of(mockRow));
 
             // When
             List<Album> albums = metalstormClient.getAlbums(pageNumber);
@@ -575,6 +483,45 @@ class MetalstormClientTest {
         }
     }
 
+    @Nested
+    @DisplayName("Session Pool Tests")
+    class SessionPoolTests {
+        @Test
+        @DisplayName("should launch one browser per session")
+        void testConstructorLaunchesOneBrowserPerSession() {
+            // When
+            new MetalstormClient(3, 100.0);
+
+            // Then - one browser from setUp and three from the pooled client
+            verify(mockFirefox, times(4)).launch(any(BrowserType.LaunchOptions.class));
+            verify(mockBrowser, times(4)).newContext(any(Browser.NewContextOptions.class));
+        }
+
+        @Test
+        @DisplayName("should reuse the same page across calls")
+        void testGetAlbumsReusesPage() {
+            // Given
+            whenRowsExtracted(List.of());
+
+            // When
+            metalstormClient.getAlbums(1);
+            metalstormClient.getAlbums(2);
+
+            // Then - filter is only set once and the page is opened once
+            verify(mockContext).newPage();
+            verify(mockPage).navigate(FILTER_URL);
+            verify(mockPage).navigate(ALBUMS_PAGE_URL + "2");
+        }
+
+        @Test
+        @DisplayName("should reject non-positive concurrency")
+        void testConstructorRejectsNonPositiveConcurrency() {
+            assertThatThrownBy(() -> new MetalstormClient(0, 100.0))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("'concurrency' should be at least 1");
+        }
+    }
+
     @Nested
     @DisplayName("Resource Management Tests")
     class ResourceManagementTests {
@@ -0,0 +1,86 @@
+package org.schimodie.albums_to_listen_to.client;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetalstormHttpClientTest {
+    private static final String ALBUMS_PAGE = """
+            <table class="table">
+              <thead><tr><th>#</th></tr></thead>
+              <tbody>
+                <tr>
+                  <td></td><td></td>
+                  <td>
+                    <a href="band.php?band_id=11111">Artist One</a> /
+                    <a href="band.php?band_id=22222">Artist Two</a> -
+                    <a href="album.php?album_id=67890">Test Album</a>
+                  </td>
+                  <td></td><td>Full-length</td><td>Metal</td>
+                  <td><a href="#">8.5</a></td><td>50</td>
+                </tr>
+                <tr>
+                  <td></td><td></td>
+                  <td><a href="band.php?band_id=12345">Test Artist</a> - <a href="album.php?album_id=1">Other</a></td>
+                  <td></td><td>EP</td><td>Black</td>
+                  <td>-</td><td>invalid</td>
+                </tr>
+              </tbody>
+            </table>
+            """;
+
+    @Test
+    void parseAlbums() {
+        List<Album> albums = MetalstormHttpClient.parseAlbums(Jsoup.parse(ALBUMS_PAGE));
+
+        assertThat(albums).containsExactly(
+                Album.builder()
+                        .album("Test Album")
+                        .artists(List.of("Artist One", "Artist Two"))
+                        .albumId("67890")
+                        .artistIds(List.of("11111", "22222"))
+                        .genre("Metal")
+                        .type("Full-length")
+                        .rating(8.5)
+                        .votes(50)
+                        .build(),
+                Album.builder()
+                        .album("Other")
+                        .artists(List.of("Test Artist"))
+                        .albumId("1")
+                        .artistIds(List.of("12345"))
+                        .genre("Black")
+                        .type("EP")
+                        .rating(0.0)
+                        .votes(0)
+                        .build());
+    }
+
+    @Test
+    void parseAlbumsRejectsInvalidRows() {
+        Document document = Jsoup.parse("<table class=\"table\"><thead></thead><tbody><tr><td></td></tr></tbody></table>");
+
+        assertThatThrownBy(() -> MetalstormHttpClient.parseAlbums(document))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid album row structure");
+    }
+
+    @Test
+    void parseAlbumDate() {
+        Document document = Jsoup.parse("""
+                <div class="right-col">
+                  <div></div>
+                  <table><tbody><tr><td>Release date</td><td>15 November 2024</td></tr></tbody></table>
+                </div>
+                """);
+
+        assertThat(MetalstormHttpClient.parseAlbumDate(document)).isEqualTo(Instant.parse("2024-11-15T00:00:00Z"));
+    }
+}
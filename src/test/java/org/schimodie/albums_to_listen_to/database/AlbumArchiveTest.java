@@ -0,0 +1,110 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AlbumArchiveTest {
+    private static final List<Album> ALBUMS = IntStream.range(0, 50)
+            .mapToObj(i -> Album.builder()
+                    .album("Album " + i)
+                    .albumId(String.valueOf(1000 + i))
+                    .artists(List.of("Artist " + i % 7))
+                    .artistIds(List.of(String.valueOf(i % 7)))
+                    .genre(i % 2 == 0 ? "Black" : "Death")
+                    .type("Full-length")
+                    .rating(7.0 + i % 10 / 10.0)
+                    .votes(i)
+                    .build())
+            .toList();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void looksUpSingleAlbumsAndRanges() {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+        AlbumArchive.write(ALBUMS, albumsFile);
+
+        AlbumArchive archive = AlbumArchive.open(albumsFile);
+
+        assertThat(archive.size()).isEqualTo(ALBUMS.size());
+        assertThat(archive.get("1017")).contains(ALBUMS.get(17));
+        assertThat(archive.get("missing")).isEmpty();
+        assertThat(archive.get(49)).isEqualTo(ALBUMS.get(49));
+        assertThat(archive.range(10, 13)).containsExactlyElementsOf(ALBUMS.subList(10, 13));
+    }
+
+    @Test
+    void archivesAreRegularAlbumFiles() {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+        AlbumArchive.write(ALBUMS, albumsFile);
+
+        try (Stream<Album> albums = Storage.streamAlbums(albumsFile)) {
+            assertThat(albums).containsExactlyElementsOf(ALBUMS);
+        }
+    }
+
+    @Test
+    void requiresAnIndex() {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+        try (AlbumWriter writer = Storage.openAlbumWriter(albumsFile)) {
+            ALBUMS.forEach(writer::write);
+        }
+
+        assertThatThrownBy(() -> AlbumArchive.open(albumsFile))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageStartingWith("Index file");
+    }
+
+    // A crash between replacing the albums file and replacing its index leaves a new albums file next to an old index
+    @Test
+    void rejectsAnIndexOfAnotherAlbumsFile() {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+        AlbumArchive.write(ALBUMS, albumsFile);
+        File oldIndexFile = tempDir.resolve("old.idx").toFile();
+        assertThat(AlbumArchive.indexFile(albumsFile).renameTo(oldIndexFile)).isTrue();
+
+        AlbumArchive.write(ALBUMS.reversed(), albumsFile);
+        assertThat(oldIndexFile.renameTo(AlbumArchive.indexFile(albumsFile))).isTrue();
+
+        assertThatThrownBy(() -> AlbumArchive.open(albumsFile))
+                .hasMessageContaining("does not match its albums file");
+    }
+
+    // Same length, different album in the middle: only reading that album, or verifying the whole file, notices
+    @Test
+    void rejectsAlbumsThatChangedBehindTheIndex() throws Exception {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+        AlbumArchive.write(ALBUMS, albumsFile);
+        String albums = Files.readString(albumsFile.toPath(), StandardCharsets.UTF_8);
+        Files.writeString(albumsFile.toPath(), albums.replace("Album 17", "Album 71"), StandardCharsets.UTF_8);
+
+        AlbumArchive archive = AlbumArchive.open(albumsFile);
+
+        assertThat(archive.get("1016")).contains(ALBUMS.get(16));
+        assertThatThrownBy(() -> archive.get("1017")).hasMessageContaining("does not match its albums file");
+        assertThatThrownBy(archive::verify).hasMessageContaining("does not match its albums file");
+    }
+
+    @Test
+    void verifiesAnUntouchedArchive() {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+        AlbumArchive.write(ALBUMS, albumsFile);
+
+        AlbumArchive.open(albumsFile).verify();
+        AlbumArchive.write(List.of(), albumsFile);
+        AlbumArchive.open(albumsFile).verify();
+    }
+}
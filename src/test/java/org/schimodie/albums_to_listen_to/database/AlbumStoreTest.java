@@ -0,0 +1,102 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlbumStoreTest {
+    private static final Instant AFTER_DATE = Instant.parse("2025-06-29T00:00:00Z");
+    private static final Instant LATEST_DATE = Instant.parse("2025-08-01T00:00:00Z");
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void firstSyncUsesTheRequestedCutoff() {
+        assertThat(openStore().syncCutoff(AFTER_DATE)).isEqualTo(AFTER_DATE);
+    }
+
+    @Test
+    void laterSyncsOnlyReachTheHighWaterMark() {
+        AlbumStore albumStore = openStore();
+        albumStore.merge(List.of(album("1", 8.5, 100, LATEST_DATE), album("2", 8.0, 50, null)), AFTER_DATE);
+        albumStore.save();
+
+        AlbumStore reopenedStore = openStore();
+
+        assertThat(reopenedStore.size()).isEqualTo(2);
+        assertThat(reopenedStore.syncCutoff(AFTER_DATE)).isEqualTo(LATEST_DATE);
+        assertThat(reopenedStore.syncCutoff(AFTER_DATE.minusSeconds(1))).isEqualTo(AFTER_DATE.minusSeconds(1));
+    }
+
+    @Test
+    void onlyNewOrChangedAlbumsAreEvaluatedAgain() {
+        AlbumStore albumStore = openStore();
+        List<Album> albums = List.of(album("1", 8.5, 100, LATEST_DATE), album("2", 8.0, 50, null));
+        albumStore.merge(albums, AFTER_DATE);
+        albumStore.recordVerdicts(albums, List.of(albums.getFirst()), List.of());
+
+        List<Album> changedAlbums = albumStore.merge(
+                List.of(album("1", 8.5, 100, null), album("2", 8.1, 60, null), album("3", 9.0, 10, null)),
+                AFTER_DATE);
+
+        assertThat(changedAlbums).extracting(Album::getAlbumId).containsExactly("2", "3");
+        assertThat(albumStore.getAlbumsToEvaluate()).extracting(Album::getAlbumId).containsExactly("2", "3");
+        assertThat(albumStore.getAcceptedAlbums()).singleElement()
+                .satisfies(album -> assertThat(album.getDate()).isEqualTo(LATEST_DATE));
+    }
+
+    @Test
+    void problemAlbumsStayDirtyAcrossRuns() {
+        AlbumStore albumStore = openStore();
+        List<Album> albums = List.of(album("1", 8.5, 100, null), album("2", 8.0, 50, null));
+        albumStore.merge(albums, AFTER_DATE);
+        albumStore.recordVerdicts(albums, List.of(albums.getFirst()), List.of(albums.getLast()));
+        albumStore.save();
+
+        AlbumStore reopenedStore = openStore();
+
+        assertThat(reopenedStore.getAlbumsToEvaluate()).extracting(Album::getAlbumId).containsExactly("2");
+        assertThat(reopenedStore.getAcceptedAlbums()).extracting(Album::getAlbumId).containsExactly("1");
+    }
+
+    @Test
+    void rejectedAlbumsLeaveTheAcceptedSet() {
+        AlbumStore albumStore = openStore();
+        Album album = album("1", 8.5, 100, null);
+        albumStore.merge(List.of(album), AFTER_DATE);
+        albumStore.recordVerdicts(List.of(album), List.of(album), List.of());
+
+        Album downvotedAlbum = album("1", 6.0, 120, null);
+        albumStore.merge(List.of(downvotedAlbum), AFTER_DATE);
+        albumStore.recordVerdicts(List.of(downvotedAlbum), List.of(), List.of());
+
+        assertThat(albumStore.getAcceptedAlbums()).isEmpty();
+        assertThat(albumStore.getAlbumsToEvaluate()).isEmpty();
+    }
+
+    private AlbumStore openStore() {
+        return new AlbumStore(tempDir.resolve("album-store.json").toFile(),
+                tempDir.resolve("album-store-state.json").toFile());
+    }
+
+    private static Album album(String albumId, double rating, int votes, Instant date) {
+        return Album.builder()
+                .album("Album " + albumId)
+                .artists(List.of("Artist"))
+                .albumId(albumId)
+                .artistIds(List.of("1"))
+                .genre("Heavy")
+                .type("Full-length")
+                .rating(rating)
+                .votes(votes)
+                .date(date)
+                .build();
+    }
+}
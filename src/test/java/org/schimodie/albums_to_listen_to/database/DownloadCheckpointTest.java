@@ -0,0 +1,86 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DownloadCheckpointTest {
+    private static final Instant CUTOFF = Instant.parse("2025-06-29T00:00:00Z");
+    private static final List<Album> PAGE_ALBUMS = List.of(
+            Album.builder().album("First").albumId("1").rating(8.5).votes(40).build(),
+            Album.builder().album("Second").albumId("2").date(Instant.parse("2025-07-15T00:00:00Z")).build());
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void recordedPagesSurviveReopening() {
+        try (DownloadCheckpoint checkpoint = openCheckpoint(CUTOFF)) {
+            checkpoint.recordPage(1, PAGE_ALBUMS);
+            checkpoint.recordPage(2, List.of());
+        }
+
+        try (DownloadCheckpoint checkpoint = openCheckpoint(CUTOFF)) {
+            assertThat(checkpoint.size()).isEqualTo(2);
+            assertThat(checkpoint.getPage(1)).contains(PAGE_ALBUMS);
+            assertThat(checkpoint.getPage(2)).contains(List.of());
+            assertThat(checkpoint.getPage(3)).isEmpty();
+        }
+    }
+
+    @Test
+    void tornLastLineIsDiscarded() throws Exception {
+        try (DownloadCheckpoint checkpoint = openCheckpoint(CUTOFF)) {
+            checkpoint.recordPage(1, PAGE_ALBUMS);
+        }
+        Files.writeString(checkpointFile().toPath(), "{\"page\":2,\"cutoff\":", StandardOpenOption.APPEND);
+
+        try (DownloadCheckpoint checkpoint = openCheckpoint(CUTOFF)) {
+            assertThat(checkpoint.size()).isEqualTo(1);
+            checkpoint.recordPage(2, PAGE_ALBUMS);
+        }
+
+        try (DownloadCheckpoint checkpoint = openCheckpoint(CUTOFF)) {
+            assertThat(checkpoint.getPage(1)).contains(PAGE_ALBUMS);
+            assertThat(checkpoint.getPage(2)).contains(PAGE_ALBUMS);
+        }
+    }
+
+    @Test
+    void checkpointOfAnotherCutoffIsDiscarded() {
+        try (DownloadCheckpoint checkpoint = openCheckpoint(CUTOFF)) {
+            checkpoint.recordPage(1, PAGE_ALBUMS);
+        }
+
+        try (DownloadCheckpoint checkpoint = openCheckpoint(CUTOFF.plusSeconds(1))) {
+            assertThat(checkpoint.size()).isZero();
+        }
+    }
+
+    @Test
+    void deleteRemovesTheCheckpoint() {
+        try (DownloadCheckpoint checkpoint = openCheckpoint(CUTOFF)) {
+            checkpoint.recordPage(1, PAGE_ALBUMS);
+            checkpoint.delete();
+        }
+
+        assertThat(checkpointFile()).doesNotExist();
+    }
+
+    private DownloadCheckpoint openCheckpoint(Instant cutoff) {
+        return new DownloadCheckpoint(checkpointFile(), cutoff, 2);
+    }
+
+    private File checkpointFile() {
+        return tempDir.resolve("albums.json.checkpoint").toFile();
+    }
+}
@@ -0,0 +1,102 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schimodie.albums_to_listen_to.bean.AlbumInfoKey;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LastFMResponseCacheTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final AlbumInfoKey KEY = AlbumInfoKey.of("Artist", "Album", "Schimodie");
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void missThenHit() throws Exception {
+        LastFMResponseCache cache = new LastFMResponseCache(cacheFile(), Duration.ofDays(1));
+        JsonNode response = OBJECT_MAPPER.readTree("{\"album\":{\"userplaycount\":3}}");
+
+        assertThat(cache.get(KEY)).isEmpty();
+        cache.put(KEY, response);
+        assertThat(cache.get(KEY)).contains(response);
+
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void entriesSurviveReopening() throws Exception {
+        JsonNode oldResponse = OBJECT_MAPPER.readTree("{\"album\":{\"userplaycount\":0}}");
+        JsonNode newResponse = OBJECT_MAPPER.readTree("{\"album\":{\"userplaycount\":1}}");
+        LastFMResponseCache cache = new LastFMResponseCache(cacheFile(), Duration.ofDays(1));
+        cache.put(KEY, oldResponse);
+        cache.put(KEY, newResponse);
+        cache.put(AlbumInfoKey.of("Artist", "Album", null), oldResponse);
+
+        LastFMResponseCache reopenedCache = new LastFMResponseCache(cacheFile(), Duration.ofDays(1));
+
+        assertThat(reopenedCache.get(KEY)).contains(newResponse);
+        assertThat(reopenedCache.get(AlbumInfoKey.of("Artist", "Album", null))).contains(oldResponse);
+    }
+
+    @Test
+    void nonAsciiNamesAreStoredAsUtf8() throws Exception {
+        AlbumInfoKey key = AlbumInfoKey.of("Motörhead", "Ace of Spades", "Schimodie");
+        JsonNode response = OBJECT_MAPPER.readTree("{\"album\":{\"artist\":\"Motörhead\",\"userplaycount\":2}}");
+        new LastFMResponseCache(cacheFile(), Duration.ofDays(1)).put(key, response);
+
+        assertThat(Files.readString(cacheFile().toPath(), StandardCharsets.UTF_8)).contains("Motörhead");
+        assertThat(new LastFMResponseCache(cacheFile(), Duration.ofDays(1)).get(key)).contains(response);
+    }
+
+    @Test
+    void expiredEntriesAreMisses() throws Exception {
+        LastFMResponseCache cache = new LastFMResponseCache(cacheFile(), Duration.ofMillis(-1));
+        cache.put(KEY, OBJECT_MAPPER.readTree("{\"album\":{}}"));
+
+        assertThat(cache.get(KEY)).isEmpty();
+        assertThat(new LastFMResponseCache(cacheFile(), Duration.ofMillis(-1)).get(KEY)).isEmpty();
+    }
+
+    @Test
+    void tornLastLineIsSkippedAndCutOff() throws Exception {
+        JsonNode response = OBJECT_MAPPER.readTree("{\"album\":{\"userplaycount\":3}}");
+        new LastFMResponseCache(cacheFile(), Duration.ofDays(1)).put(KEY, response);
+        Files.writeString(cacheFile().toPath(), "{\"artist\":\"Artist\",\"alb", StandardOpenOption.APPEND);
+
+        LastFMResponseCache reopenedCache = new LastFMResponseCache(cacheFile(), Duration.ofDays(1));
+
+        assertThat(reopenedCache.get(KEY)).contains(response);
+        assertThat(Files.readAllLines(cacheFile().toPath())).hasSize(1);
+    }
+
+    @Test
+    void onlyLiveEntriesAreKeptOnDisk() throws Exception {
+        LastFMResponseCache cache = new LastFMResponseCache(cacheFile(), Duration.ofDays(1));
+        for (int i = 0; i < 5; ++i) {
+            cache.put(KEY, OBJECT_MAPPER.readTree("{\"album\":{\"userplaycount\":" + i + "}}"));
+        }
+        cache.put(AlbumInfoKey.of("Other", "Album", null), OBJECT_MAPPER.readTree("{\"album\":{}}"));
+        assertThat(Files.readAllLines(cacheFile().toPath())).hasSize(6);
+
+        LastFMResponseCache reopenedCache = new LastFMResponseCache(cacheFile(), Duration.ofDays(1));
+
+        assertThat(Files.readAllLines(cacheFile().toPath())).hasSize(2);
+        assertThat(reopenedCache.get(KEY)).contains(OBJECT_MAPPER.readTree("{\"album\":{\"userplaycount\":4}}"));
+    }
+
+    private File cacheFile() {
+        return tempDir.resolve("cache.json").toFile();
+    }
+}
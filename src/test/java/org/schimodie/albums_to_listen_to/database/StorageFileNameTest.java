@@ -16,4 +16,12 @@ class StorageFileNameTest {
                 "filtered-albums-on", today, "from", afterDate);
         assertEquals("filtered-albums-on-2025-03-30-from-2024-02-12.json", filteredAlbumsFileName);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCreateBinaryFileName() {
+        Instant afterDate = Instant.from(DT_FORMATTER.parse("2024-02-12"));
+        String albumsFileName = StorageFileName.createFileName(StorageFormat.BINARY, "albums", afterDate);
+        assertEquals("albums-2024-02-12.bin", albumsFileName);
+        assertEquals(StorageFormat.BINARY, StorageFormat.fromFileName(albumsFileName));
+    }
+}
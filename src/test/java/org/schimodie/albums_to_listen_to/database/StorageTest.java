@@ -0,0 +1,155 @@
+package org.schimodie.albums_to_listen_to.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class StorageTest {
+    private static final List<Album> ALBUMS = List.of(
+            Album.builder()
+                    .album("Test Album")
+                    .artists(List.of("Artist One", "Artist Two"))
+                    .albumId("67890")
+                    .artistIds(List.of("11111", "22222"))
+                    .genre("Metal")
+                    .type("Full-length")
+                    .rating(8.5)
+                    .votes(50)
+                    .date(Instant.parse("2024-11-15T00:00:00Z"))
+                    .build(),
+            Album.builder()
+                    .album("Other")
+                    .artists(List.of("Test Artist"))
+                    .albumId("1")
+                    .artistIds(List.of("12345"))
+                    .genre("Black")
+                    .type("EP")
+                    .build());
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void writesOneAlbumPerLine() throws Exception {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+
+        try (AlbumWriter writer = Storage.openAlbumWriter(albumsFile)) {
+            ALBUMS.forEach(writer::write);
+        }
+
+        assertThat(Files.readAllLines(albumsFile.toPath()))
+                .containsExactly(ALBUMS.get(0).toString(), ALBUMS.get(1).toString());
+    }
+
+    @Test
+    void streamsWhatWasWritten() {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+
+        try (AlbumWriter writer = Storage.openAlbumWriter(albumsFile)) {
+            ALBUMS.forEach(writer::write);
+        }
+
+        try (Stream<Album> albums = Storage.streamAlbums(albumsFile)) {
+            assertThat(albums).containsExactlyElementsOf(ALBUMS);
+        }
+    }
+
+    @Test
+    void streamsLegacyFilesWithAliasesAndBlankLines() throws Exception {
+        File albumsFile = tempDir.resolve("legacy.json").toFile();
+        Files.writeString(albumsFile.toPath(), """
+                {"rating":7.5,"numVotes":20,"album":"Legacy","albumId":"2"}
+
+                  {"rating":7.6,"votes":21,"album":"Current","albumId":"3"}\s
+                """);
+
+        try (Stream<Album> albums = Storage.streamAlbums(albumsFile)) {
+            assertThat(albums).extracting(Album::getAlbum, Album::getVotes)
+                    .containsExactly(
+                            tuple("Legacy", 20),
+                            tuple("Current", 21));
+        }
+    }
+
+    @Test
+    void binaryRoundTripIsLossless() {
+        File albumsFile = tempDir.resolve("albums.bin").toFile();
+        List<Album> albums = new ArrayList<>(ALBUMS);
+        albums.add(Album.builder()
+                .album("Ünïcödé")
+                .artists(List.of("Artist One"))
+                .artistIds(List.of("11111"))
+                .genre("Metal")
+                .rating(7.25)
+                .votes(300_000)
+                .date(Instant.ofEpochSecond(1_700_000_000L, 123_456_789))
+                .build());
+        albums.add(new Album());
+
+        try (AlbumWriter writer = Storage.openAlbumWriter(albumsFile)) {
+            albums.forEach(writer::write);
+        }
+
+        try (Stream<Album> readAlbums = Storage.streamAlbums(albumsFile)) {
+            assertThat(readAlbums).containsExactlyElementsOf(albums);
+        }
+    }
+
+    @Test
+    void binaryFilesAreSmallerThanJsonLines() {
+        File jsonFile = tempDir.resolve("albums.json").toFile();
+        File binaryFile = tempDir.resolve("albums.bin").toFile();
+
+        for (File albumsFile : List.of(jsonFile, binaryFile)) {
+            try (AlbumWriter writer = Storage.openAlbumWriter(albumsFile)) {
+                for (int i = 0; i < 100; ++i) {
+                    ALBUMS.forEach(writer::write);
+                }
+            }
+        }
+
+        assertThat(binaryFile.length()).isLessThan(jsonFile.length() / 2);
+    }
+
+    @Test
+    void atomicWritesReplaceTheWholeFile() throws Exception {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+        Files.writeString(albumsFile.toPath(), "stale content that is longer than the new albums".repeat(20));
+
+        Storage.writeAlbums(ALBUMS.subList(0, 1), albumsFile);
+
+        try (Stream<Album> readAlbums = Storage.streamAlbums(albumsFile)) {
+            assertThat(readAlbums).containsExactly(ALBUMS.getFirst());
+        }
+        assertThat(tempDir.toFile().list()).containsExactly("albums.json");
+    }
+
+    @Test
+    void failedAtomicWritesKeepThePreviousFile() {
+        File albumsFile = tempDir.resolve("albums.json").toFile();
+        Storage.writeAlbums(ALBUMS, albumsFile);
+
+        assertThatThrownBy(() -> Storage.writeAtomically(albumsFile, outputStream -> {
+            outputStream.write("{\"album\":".getBytes());
+            throw new IOException("Scrape failed");
+        })).isInstanceOf(RuntimeException.class).hasCauseInstanceOf(IOException.class);
+
+        try (Stream<Album> readAlbums = Storage.streamAlbums(albumsFile)) {
+            assertThat(readAlbums).containsExactlyElementsOf(ALBUMS);
+        }
+        assertThat(tempDir.toFile().list()).containsExactly("albums.json");
+    }
+}
@@ -0,0 +1,85 @@
+package org.schimodie.albums_to_listen_to.filter;
+
+import org.junit.jupiter.api.Test;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class FilterPipelineTest {
+    private static final List<Album> ALBUMS = IntStream.range(0, 1_000)
+            .mapToObj(i -> Album.builder().albumId(String.valueOf(i)).votes(i).build())
+            .toList();
+
+    @Test
+    void cheapAndSelectiveStagesRunFirst() {
+        FilterPipeline pipeline = new FilterPipeline()
+                .addLocalStage("barely selective", 10, 0.9, album -> album.getVotes() % 10 != 0)
+                .addLocalStage("expensive", 1_000, 0.5, album -> album.getVotes() % 2 == 0)
+                .addLocalStage("very selective", 10, 0.1, album -> album.getVotes() < 100);
+
+        assertThat(pipeline.getStages()).extracting(FilterPipeline.Stage::getName)
+                .containsExactly("very selective", "barely selective", "expensive");
+
+        List<Album> acceptedAlbums = pipeline.apply(ALBUMS);
+
+        assertThat(acceptedAlbums).extracting(Album::getVotes).containsExactlyElementsOf(IntStream.range(0, 100)
+                .filter(i -> i % 2 == 0 && i % 10 != 0)
+                .boxed()
+                .toList());
+    }
+
+    @Test
+    void remoteStagesOnlySeeAlbumsAcceptedByEveryLocalStage() {
+        List<Album> remotelyEvaluatedAlbums = new ArrayList<>();
+        FilterPipeline pipeline = new FilterPipeline()
+                .addRemoteStage("network", 1, 0.01, albums -> {
+                    remotelyEvaluatedAlbums.addAll(albums);
+                    return albums;
+                })
+                .addLocalStage("slow local", 1_000_000, 0.99, album -> album.getVotes() % 100 != 0)
+                .addLocalStage("fast local", 10, 0.5, album -> album.getVotes() >= 500);
+
+        assertThat(pipeline.getStages()).extracting(FilterPipeline.Stage::getName).last().isEqualTo("network");
+
+        pipeline.apply(ALBUMS);
+
+        assertThat(remotelyEvaluatedAlbums).hasSize(495)
+                .allMatch(album -> album.getVotes() >= 500 && album.getVotes() % 100 != 0);
+    }
+
+    // "first" is estimated to be cheaper, but never rejects anything in the first two chunks and is moved back
+    @Test
+    void reordersLocalStagesOnWhatWasMeasured() {
+        FilterPipeline pipeline = new FilterPipeline()
+                .addLocalStage("first", 10, 0.5, album -> album.getVotes() < 600)
+                .addLocalStage("second", 20, 0.5, album -> album.getVotes() < 300)
+                .addRemoteStage("remote", 1_000, 0.5, albums -> List.of());
+
+        pipeline.apply(ALBUMS);
+
+        assertThat(pipeline.getStages())
+                .extracting(FilterPipeline.Stage::getName, FilterPipeline.Stage::getEvaluatedAlbums,
+                        FilterPipeline.Stage::getRejectedAlbums)
+                .containsExactly(
+                        tuple("second", 1_000L, 700L),
+                        tuple("first", 2L * FilterPipeline.CHUNK_SIZE, 0L),
+                        tuple("remote", 300L, 300L));
+        assertThat(pipeline.report()).contains("remote (remote)");
+    }
+
+    @Test
+    void stagesAreSkippedOnceNothingIsLeft() {
+        FilterPipeline pipeline = new FilterPipeline()
+                .addLocalStage("rejects everything", 10, 0.0, _ -> false)
+                .addRemoteStage("remote", 1_000, 0.5, albums -> {
+                    throw new IllegalStateException("Should not be called");
+                });
+
+        assertThat(pipeline.apply(ALBUMS)).isEmpty();
+    }
+}
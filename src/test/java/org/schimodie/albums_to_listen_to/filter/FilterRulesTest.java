@@ -0,0 +1,132 @@
+package org.schimodie.albums_to_listen_to.filter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schimodie.albums_to_listen_to.bean.Album;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FilterRulesTest {
+    private static final double EPSILON = 0.0000001d;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void defaultRatingRulesMatchTheLegacyPredicate() {
+        FilterRules filterRules = FilterRules.defaults();
+
+        for (int ratingInTenths = 0; ratingInTenths <= 100; ++ratingInTenths) {
+            for (int votes = 0; votes <= 40; ++votes) {
+                Album album = album("Heavy", "Studio", ratingInTenths / 10.0, votes);
+
+                assertThat(filterRules.acceptsRatingAndVotes(album))
+                        .as("rating %s, votes %d", album.getRating(), votes)
+                        .isEqualTo(legacyFilterByRatingAndVotes(album));
+            }
+        }
+    }
+
+    // Metalstorm only publishes whole tenths; anything in between never reaches a higher tier than its lower tenth
+    @Test
+    void ratingsBetweenTenthsUseTheLowerTenth() {
+        FilterRules filterRules = FilterRules.defaults();
+
+        for (int ratingInTenths = 0; ratingInTenths < 100; ++ratingInTenths) {
+            for (double fraction : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+                double rating = (ratingInTenths + fraction) / 10.0;
+
+                assertThat(filterRules.getMinVotes(rating))
+                        .as("rating %s", rating)
+                        .isEqualTo(filterRules.getMinVotes(ratingInTenths / 10.0));
+            }
+        }
+
+        assertThat(filterRules.getMinVotes(7.75)).isEqualTo(12);
+        assertThat(filterRules.getMinVotes(6.95)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(filterRules.getMinVotes(7.7)).isEqualTo(12);
+        assertThat(filterRules.getMinVotes(0.7 * 11)).isEqualTo(12);
+    }
+
+    @Test
+    void defaultGenreAndTypeRulesMatchTheLegacyPredicate() {
+        FilterRules filterRules = FilterRules.defaults();
+
+        for (String genre : List.of("Heavy", "Goregrind", "Grindcore", "Death/grind", "Black")) {
+            for (String type : List.of("Studio", "STUDIO", "ep", "EP", "Live", "Compilation", "Single")) {
+                Album album = album(genre, type, 8.0, 20);
+
+                assertThat(filterRules.acceptsGenreAndType(album))
+                        .as("genre %s, type %s", genre, type)
+                        .isEqualTo(legacyFilterByGenreAndType(album));
+            }
+        }
+    }
+
+    @Test
+    void loadsRulesFromAConfigFile() throws Exception {
+        File configFile = tempDir.resolve("filter-rules.json").toFile();
+        Files.writeString(configFile.toPath(), """
+                {
+                  "excludedGenrePattern": "(?i)grind|core$",
+                  "includedTypes": ["Studio"],
+                  "minVotesByRating": {"6.5": 40, "8.0": 5}
+                }
+                """);
+
+        FilterRules filterRules = FilterRules.load(configFile);
+
+        assertThat(filterRules.getMinVotes(6.4)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(filterRules.getMinVotes(6.5)).isEqualTo(40);
+        assertThat(filterRules.getMinVotes(7.9)).isEqualTo(40);
+        assertThat(filterRules.getMinVotes(9.7)).isEqualTo(5);
+        assertThat(filterRules.acceptsGenreAndType(album("Metalcore", "Studio", 8.0, 5))).isFalse();
+        assertThat(filterRules.acceptsGenreAndType(album("Heavy", "EP", 8.0, 5))).isFalse();
+        assertThat(filterRules.acceptsGenreAndType(album("Heavy", "studio", 8.0, 5))).isTrue();
+    }
+
+    @Test
+    void rejectsRatingsWithMoreThanOneDecimal() throws Exception {
+        File configFile = tempDir.resolve("filter-rules.json").toFile();
+        Files.writeString(configFile.toPath(), """
+                {"excludedGenrePattern": "grind", "includedTypes": [], "minVotesByRating": {"7.25": 20}}
+                """);
+
+        assertThatThrownBy(() -> FilterRules.load(configFile))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Rating '7.25' has more than one decimal");
+    }
+
+    private static Album album(String genre, String type, double rating, int votes) {
+        return Album.builder()
+                .album("Album")
+                .genre(genre)
+                .type(type)
+                .rating(rating)
+                .votes(votes)
+                .build();
+    }
+
+    // The predicates AlbumsFilter used before the rules became configurable
+    private static boolean legacyFilterByGenreAndType(Album album) {
+        return !album.getGenre().contains("grind")
+                && (album.getType().equalsIgnoreCase("studio") || album.getType().equalsIgnoreCase("ep"));
+    }
+
+    private static boolean legacyFilterByRatingAndVotes(Album album) {
+        return (album.getRating() >= 7.8 && album.getVotes() >= 10)
+                || (Math.abs(album.getRating() - 7.7) <= EPSILON && album.getVotes() >= 12)
+                || (Math.abs(album.getRating() - 7.6) <= EPSILON && album.getVotes() >= 13)
+                || (Math.abs(album.getRating() - 7.5) <= EPSILON && album.getVotes() >= 15)
+                || (Math.abs(album.getRating() - 7.4) <= EPSILON && album.getVotes() >= 17)
+                || (7.2 <= album.getRating() && album.getRating() <= 7.3 && album.getVotes() >= 20)
+                || (Math.abs(album.getRating() - 7.1) <= EPSILON && album.getVotes() >= 23)
+                || (Math.abs(album.getRating() - 7.0) <= EPSILON && album.getVotes() >= 25);
+    }
+}
@@ -0,0 +1,77 @@
+package org.schimodie.common.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExactQuantilesTest {
+    private static final double[] PERCENTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0};
+
+    @Test
+    void matchesIndexingIntoASortedList() {
+        SplittableRandom random = new SplittableRandom(5);
+
+        for (int size : new int[]{1, 2, 7, 24, 25, 100, 1_001, 50_000}) {
+            ExactQuantiles exactQuantiles = new ExactQuantiles(4);
+            List<Double> data = new ArrayList<>();
+
+            for (int i = 0; i < size; ++i) {
+                // Plenty of ties on the barriers, plus both zeroes, which only Double.compare tells apart
+                double value = switch (random.nextInt(5)) {
+                    case 0 -> 0.0;
+                    case 1 -> 250.0;
+                    case 2 -> -0.0;
+                    default -> random.nextDouble(-1, 250);
+                };
+                exactQuantiles.add(value);
+                data.add(value);
+            }
+
+            assertThat(exactQuantiles.getQuantiles(PERCENTILES)).containsExactly(sortedReference(data));
+        }
+    }
+
+    @Test
+    void mergedBuffersMatchOneBuffer() {
+        SplittableRandom random = new SplittableRandom(6);
+        ExactQuantiles first = new ExactQuantiles(1);
+        ExactQuantiles second = new ExactQuantiles(1);
+        List<Double> data = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; ++i) {
+            double value = Math.floor(random.nextDouble(0, 100));
+            (i % 3 == 0 ? first : second).add(value);
+            data.add(value);
+        }
+        first.merge(second);
+
+        assertThat(first.size()).isEqualTo(data.size());
+        assertThat(first.getQuantiles(PERCENTILES)).containsExactly(sortedReference(data));
+        assertThat(first.getQuantiles(0.5, 0.5, 0.0)).containsExactly(
+                sortedReference(data)[4], sortedReference(data)[4], sortedReference(data)[0]);
+    }
+
+    @Test
+    void emptyBufferHasNoQuantiles() {
+        assertThat(new ExactQuantiles().getQuantiles(PERCENTILES)).containsOnly(Double.NaN);
+    }
+
+    // The computation GamblingSim.Stats used before
+    private static double[] sortedReference(List<Double> data) {
+        List<Double> sortedData = new ArrayList<>(data);
+        Collections.sort(sortedData);
+
+        return Arrays.stream(PERCENTILES)
+                .map(perc -> Math.round(perc * (sortedData.size() - 1)))
+                .boxed()
+                .mapToInt(Double::intValue)
+                .mapToDouble(sortedData::get)
+                .toArray();
+    }
+}
@@ -0,0 +1,64 @@
+package org.schimodie.common.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class QuantileSketchTest {
+    private static final double[] QUANTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0};
+
+    @Test
+    void quantilesStayWithinTheRelativeAccuracy() {
+        SplittableRandom random = new SplittableRandom(3);
+        double[] values = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch();
+
+        for (int i = 0; i < values.length; ++i) {
+            // Lots of exact zeroes and a long tail, like the final capital of the simulations
+            values[i] = random.nextInt(4) == 0 ? 0.0 : Math.exp(random.nextDouble(-5, 6)) - (i % 7 == 0 ? 300 : 0);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : QUANTILES) {
+            double expected = values[(int) Math.round(quantile * (values.length - 1))];
+            assertThat(sketch.getQuantile(quantile))
+                    .isCloseTo(expected, offset(Math.abs(expected) * QuantileSketch.DEFAULT_RELATIVE_ACCURACY));
+        }
+        assertThat(sketch.getQuantile(0.0)).isEqualTo(values[0]);
+        assertThat(sketch.getQuantile(1.0)).isEqualTo(values[values.length - 1]);
+    }
+
+    @Test
+    void mergedSketchesAnswerLikeASingleSketch() {
+        SplittableRandom random = new SplittableRandom(4);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch[] parts = {new QuantileSketch(), new QuantileSketch(), new QuantileSketch()};
+
+        for (int i = 0; i < 30_000; ++i) {
+            // Each part covers a different range, so merging has to grow the buckets in both directions
+            double value = random.nextDouble(1, 10) * Math.pow(100, i % 3) * (i % 5 == 0 ? -1 : 1);
+            all.add(value);
+            parts[(i % 3 + 1) % 3].add(value);
+        }
+
+        QuantileSketch merged = new QuantileSketch().merge(parts[1]).merge(parts[0]).merge(parts[2]);
+
+        assertThat(merged.getCount()).isEqualTo(all.getCount());
+        for (double quantile : QUANTILES) {
+            assertThat(merged.getQuantile(quantile)).isEqualTo(all.getQuantile(quantile));
+        }
+    }
+
+    @Test
+    void onlySketchesWithTheSameAccuracyMerge() {
+        assertThatThrownBy(() -> new QuantileSketch(0.01).merge(new QuantileSketch(0.02)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new QuantileSketch().getQuantile(0.5)).isNaN();
+    }
+}
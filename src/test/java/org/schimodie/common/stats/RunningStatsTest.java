@@ -0,0 +1,61 @@
+package org.schimodie.common.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RunningStatsTest {
+    @Test
+    void matchesTheTwoPassFormulas() {
+        double[] values = new SplittableRandom(1).doubles(10_000, 0, 250).toArray();
+        RunningStats runningStats = new RunningStats();
+        for (double value : values) {
+            runningStats.add(value);
+        }
+
+        double mean = 0.0;
+        for (double value : values) {
+            mean += value;
+        }
+        mean /= values.length;
+        double variance = 0.0;
+        for (double value : values) {
+            variance += (value - mean) * (value - mean);
+        }
+        variance /= values.length;
+
+        assertThat(runningStats.getCount()).isEqualTo(values.length);
+        assertThat(runningStats.getMean()).isCloseTo(mean, within(1e-9));
+        assertThat(runningStats.getVariance()).isCloseTo(variance, within(1e-6));
+    }
+
+    @Test
+    void mergingEqualsAddingEverythingToOneAccumulator() {
+        SplittableRandom random = new SplittableRandom(2);
+        RunningStats all = new RunningStats();
+        RunningStats first = new RunningStats();
+        RunningStats second = new RunningStats();
+
+        for (int i = 0; i < 5_000; ++i) {
+            double value = random.nextDouble(-10, 10);
+            all.add(value);
+            (i < 1_000 ? first : second).add(value);
+        }
+        first.merge(new RunningStats()).merge(second);
+
+        assertThat(first.getCount()).isEqualTo(all.getCount());
+        assertThat(first.getMean()).isCloseTo(all.getMean(), within(1e-12));
+        assertThat(first.getVariance()).isCloseTo(all.getVariance(), within(1e-9));
+        assertThat(first.getMin()).isEqualTo(all.getMin());
+        assertThat(first.getMax()).isEqualTo(all.getMax());
+    }
+
+    @Test
+    void emptyStatsHaveNoVariance() {
+        assertThat(new RunningStats().getVariance()).isNaN();
+        assertThat(new RunningStats().merge(new RunningStats()).getCount()).isZero();
+    }
+}
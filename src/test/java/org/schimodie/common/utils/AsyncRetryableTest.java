@@ -0,0 +1,141 @@
+package org.schimodie.common.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncRetryableTest {
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void shutDownScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void retriesFailedFuturesUntilSuccess() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryable<String> retryable = new AsyncRetryable<>(5, 1, _ -> true, scheduler);
+
+        CompletableFuture<String> result = retryable.retry(() -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new IOException("Flaky"))
+                : CompletableFuture.completedFuture("done"));
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void completesWithRetryableExceptionAfterMaxRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryable<String> retryable = new AsyncRetryable<>(3, 1, _ -> true, scheduler);
+
+        CompletableFuture<String> result = retryable.retry(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Thrown before a future exists");
+        });
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(RetryableException.class)
+                .hasMessage("Reached the maximum number of retries (3)")
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void nonRetryableFailuresCompleteImmediately() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryable<String> retryable = new AsyncRetryable<>(5, 1, t -> t instanceof IOException, scheduler);
+
+        CompletableFuture<String> result = retryable.retry(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> {
+                throw new IllegalArgumentException("Bad request");
+            });
+        });
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .cause()
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Bad request");
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void manyConcurrentRetriesShareOneSchedulerThread() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryable<Integer> retryable = new AsyncRetryable<>(3, 5, _ -> true, scheduler);
+
+        List<CompletableFuture<Integer>> results = IntStream.range(0, 1_000)
+                .mapToObj(i -> {
+                    AtomicInteger callAttempts = new AtomicInteger();
+                    return retryable.retry(() -> {
+                        attempts.incrementAndGet();
+                        return callAttempts.incrementAndGet() < 3
+                                ? CompletableFuture.failedFuture(new IOException("Flaky"))
+                                : CompletableFuture.completedFuture(i);
+                    });
+                })
+                .toList();
+
+        assertThat(results.stream().map(CompletableFuture::join).toList())
+                .containsExactlyElementsOf(IntStream.range(0, 1_000).boxed().toList());
+        assertThat(attempts).hasValue(3_000);
+    }
+
+    @Test
+    void stopsRetryingOnceTheBudgetIsSpent() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryable<String> retryable = AsyncRetryable.<String>builder()
+                .maxRetries(5)
+                .baseTimeInMillis(1)
+                .retryBudget(new RetryBudget(1, 0.0))
+                .scheduler(scheduler)
+                .build();
+
+        CompletableFuture<String> result = retryable.retry(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IOException("Down"));
+        });
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .cause()
+                .isInstanceOf(RetryableException.class)
+                .hasMessage("Retry budget exhausted");
+        assertThat(attempts).hasValue(2);
+    }
+
+    // Full jitter draws each delay between 0 and the exponential one; a generator that always draws 0 retries at once
+    @Test
+    void jittersTheDelays() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryable<String> retryable = AsyncRetryable.<String>builder()
+                .maxRetries(3)
+                .baseTimeInMillis(60_000)
+                .jitter(Jitter.FULL)
+                .random(() -> 0L)
+                .scheduler(scheduler)
+                .build();
+
+        CompletableFuture<String> result = retryable.retry(() -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new IOException("Flaky"))
+                : CompletableFuture.completedFuture("done"));
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+    }
+}
@@ -0,0 +1,126 @@
+package org.schimodie.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+            .windowSize(4)
+            .minimumCalls(4)
+            .failureRateThreshold(0.5)
+            .openDuration(Duration.ofSeconds(10))
+            .halfOpenCalls(2)
+            .recordFailureOn(t -> t instanceof IOException)
+            .nanoTime(now::get)
+            .build();
+
+    @Test
+    void opensOnceTheFailureRateIsReached() throws Exception {
+        succeed();
+        succeed();
+        fail();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> circuitBreaker.call(calls::incrementAndGet))
+                .isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void onlyTheLastWindowOfCallsCounts() throws Exception {
+        fail();
+        succeed();
+        succeed();
+        succeed();
+        fail();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void unrecordedExceptionsDontTripTheBreaker() {
+        for (int i = 0; i < 10; ++i) {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> {
+                throw new IllegalStateException("Parse error");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenTrialsCloseOrReopenTheBreaker() throws Exception {
+        tripBreaker();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        succeed();
+        fail();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        succeed();
+        succeed();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void decoratedRetryableStopsRetryingOnceTheBreakerOpens() {
+        AtomicInteger attempts = new AtomicInteger();
+        Retryable<String> retryable = circuitBreaker.decorate(JitteredRetryable.<String>builder()
+                .maxAttempts(10)
+                .baseDelay(Duration.ofMillis(1))
+                .build());
+
+        assertThatThrownBy(() -> retryable.retry(() -> {
+            attempts.incrementAndGet();
+            throw new IOException("Down");
+        })).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(attempts).hasValue(4);
+    }
+
+    @Test
+    void asyncCallsFailFastWhileOpen() {
+        tripBreaker();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = circuitBreaker.callAsync(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("up");
+        });
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(calls).hasValue(0);
+    }
+
+    private void tripBreaker() {
+        for (int i = 0; i < 4; ++i) {
+            circuitBreaker.callAsync(() -> CompletableFuture.failedFuture(new IOException("Down")));
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() throws Exception {
+        circuitBreaker.call(() -> "up");
+    }
+
+    private void fail() {
+        assertThatThrownBy(() -> circuitBreaker.call(() -> {
+            throw new IOException("Down");
+        })).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,124 @@
+package org.schimodie.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JitteredRetryableTest {
+    private static final Duration ONE_MILLI = Duration.ofMillis(1);
+
+    @Test
+    void retriesUntilSuccess() {
+        AtomicInteger attempts = new AtomicInteger();
+        Retryable<String> retryable = JitteredRetryable.<String>builder().baseDelay(ONE_MILLI).build();
+
+        String result = retryable.retry(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IOException("Flaky");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        Retryable<String> retryable = JitteredRetryable.<String>builder().maxAttempts(3).baseDelay(ONE_MILLI).build();
+
+        assertThatThrownBy(() -> retryable.retry(() -> {
+            attempts.incrementAndGet();
+            throw new IOException("Down");
+        }))
+                .isInstanceOf(RetryableException.class)
+                .hasMessage("Reached the maximum number of retries (3)")
+                .hasCauseInstanceOf(IOException.class);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void nonRetryableExceptionsAreRethrownAsTheyAre() {
+        AtomicInteger attempts = new AtomicInteger();
+        Retryable<String> retryable = JitteredRetryable.<String>builder()
+                .baseDelay(ONE_MILLI)
+                .retryOn(t -> t instanceof IOException)
+                .build();
+
+        assertThatThrownBy(() -> retryable.retry(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Broken page");
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Broken page");
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void errorsAreNeverRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        Retryable<String> retryable = JitteredRetryable.<String>builder().baseDelay(ONE_MILLI).build();
+
+        assertThatThrownBy(() -> retryable.retry(() -> {
+            attempts.incrementAndGet();
+            throw new AssertionError("Bug");
+        })).isInstanceOf(AssertionError.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void stopsBeforeExceedingTheMaxElapsedTime() {
+        Retryable<String> retryable = JitteredRetryable.<String>builder()
+                .baseDelay(Duration.ofSeconds(10))
+                .jitter(Jitter.NONE)
+                .maxElapsedTime(Duration.ofSeconds(1))
+                .build();
+
+        assertThatThrownBy(() -> retryable.retry(() -> {
+            throw new IOException("Down");
+        })).hasMessage("Reached the maximum elapsed time (PT1S)");
+    }
+
+    @Test
+    void sharedBudgetLimitsRetriesAcrossCallers() {
+        RetryBudget retryBudget = new RetryBudget(2, 0.5);
+        AtomicInteger attempts = new AtomicInteger();
+        Retryable<String> retryable = JitteredRetryable.<String>builder()
+                .baseDelay(ONE_MILLI)
+                .retryBudget(retryBudget)
+                .build();
+
+        for (int i = 0; i < 2; ++i) {
+            assertThatThrownBy(() -> retryable.retry(() -> {
+                attempts.incrementAndGet();
+                throw new IOException("Down");
+            })).hasMessage("Retry budget exhausted");
+        }
+        assertThat(attempts).hasValue(4);
+
+        retryable.retry(() -> "up");
+        retryable.retry(() -> "up");
+        assertThat(retryBudget.getTokens()).isEqualTo(1.0);
+    }
+
+    @Test
+    void jitteredDelaysStayWithinTheirBounds() {
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int retry = 0; retry < 10; ++retry) {
+            assertThat(Jitter.NONE.delayInMillis(retry, 100, 5_000, 0, random))
+                    .isEqualTo(Math.min(5_000, 100L << retry));
+            assertThat(Jitter.FULL.delayInMillis(retry, 100, 5_000, 0, random))
+                    .isBetween(0L, Math.min(5_000, 100L << retry));
+            assertThat(Jitter.DECORRELATED.delayInMillis(retry, 100, 5_000, 1_000, random))
+                    .isBetween(100L, 3_000L);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.schimodie.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+    private static final long ONE_SECOND_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void firstPermitIsFree() {
+        RateLimiter rateLimiter = new RateLimiter(1.0);
+
+        assertThat(rateLimiter.reserve()).isZero();
+    }
+
+    @Test
+    void subsequentPermitsAreSpacedByTheInterval() {
+        RateLimiter rateLimiter = new RateLimiter(1.0);
+
+        rateLimiter.reserve();
+        long secondWait = rateLimiter.reserve();
+        long thirdWait = rateLimiter.reserve();
+
+        assertThat(secondWait).isBetween(ONE_SECOND_IN_NANOS / 2, ONE_SECOND_IN_NANOS);
+        assertThat(thirdWait).isBetween(ONE_SECOND_IN_NANOS + ONE_SECOND_IN_NANOS / 2, 2 * ONE_SECOND_IN_NANOS);
+    }
+
+    @Test
+    void burstPermitsAreFree() {
+        RateLimiter rateLimiter = new RateLimiter(1.0, 3);
+
+        assertThat(rateLimiter.reserve()).isZero();
+        assertThat(rateLimiter.reserve()).isZero();
+        assertThat(rateLimiter.reserve()).isZero();
+        assertThat(rateLimiter.reserve()).isPositive();
+    }
+
+    @Test
+    void asyncPermitsCompleteOnceTheirSlotIsReached() {
+        RateLimiter rateLimiter = new RateLimiter(20.0);
+
+        CompletableFuture<Void> first = rateLimiter.acquireAsync();
+        CompletableFuture<Void> second = rateLimiter.acquireAsync();
+
+        assertThat(first).isDone();
+        assertThat(second).isNotDone();
+        assertThat(second).succeedsWithin(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThatThrownBy(() -> new RateLimiter(0.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter(1.0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
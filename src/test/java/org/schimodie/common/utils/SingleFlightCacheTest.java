@@ -0,0 +1,171 @@
+package org.schimodie.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCacheTest {
+    @Test
+    void concurrentRequestsShareOneLoad() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(16, _ -> false);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = IntStream.range(0, 8)
+                    .mapToObj(_ -> executor.submit(() -> cache.get("key", () -> {
+                        loads.incrementAndGet();
+                        await(releaseLoad);
+                        return "value";
+                    })))
+                    .toList();
+
+            while (cache.getCoalescedRequests() < 7) {
+                Thread.onSpinWait();
+            }
+            releaseLoad.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getLoads()).isEqualTo(1);
+    }
+
+    @Test
+    void rememberedValuesAreServedWithoutLoading() {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(16, value -> value.startsWith("ok"));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", () -> "ok " + loads.incrementAndGet());
+        cache.get("b", () -> "error " + loads.incrementAndGet());
+
+        assertThat(cache.get("a", () -> "ok " + loads.incrementAndGet())).isEqualTo("ok 1");
+        assertThat(cache.get("b", () -> "error " + loads.incrementAndGet())).isEqualTo("error 3");
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void leastRecentlyUsedValuesAreEvicted() {
+        SingleFlightCache<Integer, Integer> cache = new SingleFlightCache<>(2, _ -> true);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, loads::incrementAndGet);
+        cache.get(2, loads::incrementAndGet);
+        cache.get(1, loads::incrementAndGet);
+        cache.get(3, loads::incrementAndGet);
+
+        assertThat(cache.get(1, loads::incrementAndGet)).isEqualTo(1);
+        assertThat(cache.get(2, loads::incrementAndGet)).isEqualTo(4);
+    }
+
+    @Test
+    void asyncRequestsShareTheInFlightFuture() {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(16, _ -> true);
+        CompletableFuture<String> response = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> first = cache.getAsync("key", () -> {
+            loads.incrementAndGet();
+            return response;
+        });
+        CompletableFuture<String> second = cache.getAsync("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        second.cancel(false);
+        response.complete("value");
+
+        assertThat(first.join()).isEqualTo("value");
+        assertThat(cache.getAsync("key", CompletableFuture::new).join()).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedLoadsAreNotRemembered() {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(16, _ -> true);
+
+        assertThatThrownBy(() -> cache.get("key", () -> {
+            throw new IllegalStateException("Down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get("key", () -> "value")).isEqualTo("value");
+    }
+
+    // The late caller misses the remembered values, then stalls until the first load has been remembered and left
+    // the in-flight map before it claims the key; it must pick up the remembered value instead of loading again
+    @Test
+    void callerThatClaimsTheKeyAfterAFinishedLoadDoesNotLoadAgain() throws Exception {
+        for (boolean async : new boolean[]{false, true}) {
+            SingleFlightCache<StallingKey, String> cache = new SingleFlightCache<>(16, _ -> true);
+            AtomicInteger loads = new AtomicInteger();
+            // Remembering another key first makes every later lookup hash its key
+            cache.get(new StallingKey("other", 0), () -> "other");
+            StallingKey lateKey = new StallingKey("key", 2);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<String> lateResult = executor.submit(() -> async
+                        ? cache.getAsync(lateKey, () -> CompletableFuture.completedFuture(
+                                "value" + loads.incrementAndGet())).join()
+                        : cache.get(lateKey, () -> "value" + loads.incrementAndGet()));
+                await(lateKey.stalled);
+
+                assertThat(cache.get(new StallingKey("key", 0), () -> "value" + loads.incrementAndGet())).isEqualTo("value1");
+                lateKey.resume.countDown();
+
+                assertThat(lateResult.get()).isEqualTo("value1");
+            }
+
+            assertThat(loads.get()).isEqualTo(1);
+        }
+    }
+
+    // Blocks in the given call to hashCode
+    private static final class StallingKey {
+        private final String name;
+        private final int stallingCall;
+        private final AtomicInteger hashCodeCalls = new AtomicInteger();
+        private final CountDownLatch stalled = new CountDownLatch(1);
+        private final CountDownLatch resume = new CountDownLatch(1);
+
+        private StallingKey(String name, int stallingCall) {
+            this.name = name;
+            this.stallingCall = stallingCall;
+        }
+
+        @Override
+        public int hashCode() {
+            if (hashCodeCalls.incrementAndGet() == stallingCall) {
+                stalled.countDown();
+                await(resume);
+            }
+            return name.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StallingKey otherKey && name.equals(otherKey.name);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
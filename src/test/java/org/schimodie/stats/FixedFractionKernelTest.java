@@ -0,0 +1,58 @@
+package org.schimodie.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FixedFractionKernelTest {
+    private static final int ROUNDS = 100;
+    private static final int LANES = 333;
+
+    @Test
+    void matchesTheScalarLoopBitForBit() {
+        SplittableRandom random = new SplittableRandom(8);
+        double[] signs = new double[ROUNDS * LANES];
+        for (int i = 0; i < signs.length; ++i) {
+            signs[i] = random.nextDouble() > 0.4 ? 1.0 : -1.0;
+        }
+
+        for (double percent : new double[]{1, 15, 50, 100, 150}) {
+            double[] capital = new double[LANES];
+            int[] rounds = new int[LANES];
+            Arrays.fill(capital, 25);
+            Arrays.fill(rounds, 1);
+
+            FixedFractionKernel.run(percent, 0, 250, signs, ROUNDS, capital, rounds, LANES);
+
+            for (int lane = 0; lane < LANES; ++lane) {
+                double scalarCapital = 25;
+                int round = 1;
+                for (; round <= ROUNDS && scalarCapital > 0 && scalarCapital < 250; ++round) {
+                    double investment = Math.max(0, Math.min(percent * scalarCapital / 100.0, scalarCapital));
+                    if (signs[(round - 1) * LANES + lane] > 0) {
+                        scalarCapital += investment;
+                    } else {
+                        scalarCapital -= investment;
+                    }
+                }
+
+                assertThat(capital[lane]).isEqualTo(scalarCapital);
+                assertThat(rounds[lane]).isEqualTo(round);
+            }
+        }
+    }
+
+    @Test
+    void pathsStartingOnABarrierNeverMove() {
+        double[] capital = {0, 250, 300};
+        int[] rounds = {1, 1, 1};
+
+        FixedFractionKernel.run(50, 0, 250, new double[]{1, 1, 1, -1, -1, -1}, 2, capital, rounds, 3);
+
+        assertThat(capital).containsExactly(0, 250, 300);
+        assertThat(rounds).containsExactly(1, 1, 1);
+    }
+}
@@ -0,0 +1,84 @@
+package org.schimodie.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FixedFractionSolverTest {
+    private static final int ROUNDS = 12;
+    private static final SimulationConfig CONFIG = new SimulationConfig(20_000, ROUNDS, 25, 0, 100, 0.6);
+
+    // Enumerates every sequence of flips and plays it through the simulation's loop
+    @Test
+    void matchesEveryFlipSequencePlayedOut() {
+        for (double percent : new double[]{0, 10, 35, 100, 120}) {
+            WeightedDistribution expectedCapital = new WeightedDistribution();
+            WeightedDistribution expectedRounds = new WeightedDistribution();
+
+            for (int flips = 0; flips < 1 << ROUNDS; ++flips) {
+                double capital = CONFIG.startingCapital();
+                double probability = 1.0;
+                int round = 1;
+
+                for (int flip = 0; flip < ROUNDS; ++flip) {
+                    boolean heads = (flips >> flip & 1) == 1;
+                    probability *= heads ? CONFIG.coinHeadProbability() : 1 - CONFIG.coinHeadProbability();
+
+                    if (round == flip + 1 && capital > 0 && capital < 100) {
+                        double investment = Math.max(0, Math.min(percent * capital / 100.0, capital));
+                        capital += heads ? investment : -investment;
+                        ++round;
+                    }
+                }
+
+                expectedCapital.add(Math.max(Math.min(capital, 100), 0), probability);
+                expectedRounds.add(round, probability);
+            }
+
+            FixedFractionSolver.Solution solution = FixedFractionSolver.solve(CONFIG, new PercentStrategy(percent));
+
+            assertThat(solution.capital().getTotalProbability()).isCloseTo(1.0, within(1e-12));
+            assertThat(solution.rounds().getTotalProbability()).isCloseTo(1.0, within(1e-12));
+            assertThat(solution.capital().getMean()).isCloseTo(expectedCapital.getMean(), within(1e-9));
+            assertThat(solution.capital().getVariance()).isCloseTo(expectedCapital.getVariance(), within(1e-7));
+            assertThat(solution.rounds().getMean()).isCloseTo(expectedRounds.getMean(), within(1e-9));
+            for (double percentile : GamblingSim.Stats.PERCENTILES) {
+                assertThat(solution.capital().getQuantile(percentile))
+                        .isCloseTo(expectedCapital.getQuantile(percentile), within(1e-9));
+                assertThat(solution.rounds().getQuantile(percentile))
+                        .isEqualTo(expectedRounds.getQuantile(percentile));
+            }
+        }
+    }
+
+    @Test
+    void agreesWithTheMonteCarloEngine() {
+        try (MonteCarloEngine engine = new MonteCarloEngine(11, 16, 4)) {
+            for (double percent : new double[]{1, 20, 50, 100}) {
+                FixedFractionSolver.CrossCheck crossCheck =
+                        FixedFractionSolver.crossCheck(engine, CONFIG, new PercentStrategy(percent));
+
+                assertThat(crossCheck.isConsistent(5.0)).as("%s%% %s", percent, crossCheck).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void startingOnABarrierEndsImmediately() {
+        FixedFractionSolver.Solution solution = FixedFractionSolver.solve(
+                new SimulationConfig(1, 10, 100, 0, 100, 0.5), new PercentStrategy(50));
+
+        assertThat(solution.capital().getMean()).isEqualTo(100);
+        assertThat(solution.rounds().getMean()).isEqualTo(1);
+    }
+
+    @Test
+    void printsTheNumberOfDistinctOutcomes() {
+        FixedFractionSolver.Solution solution = FixedFractionSolver.solve(
+                new SimulationConfig(1, 2, 100, 0, 1000, 0.5), new PercentStrategy(50));
+
+        assertThat(solution.capital().size()).isEqualTo(3);
+        assertThat(solution.capital().toString()).contains(">>    outcomes: 3\n").doesNotContain("elements");
+    }
+}
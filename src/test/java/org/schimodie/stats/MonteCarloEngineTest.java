@@ -0,0 +1,95 @@
+package org.schimodie.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonteCarloEngineTest {
+    private static final SimulationConfig CONFIG = new SimulationConfig(10_000, 100, 25, 0, 250, 0.6);
+    private static final List<InvestmentStrategy> STRATEGIES = List.of(
+            (capital, random) -> random.nextDouble(0.0, capital + 0.00000001),
+            (capital, _) -> 0.2 * capital,
+            (capital, _) -> capital);
+
+    @Test
+    void resultsOnlyDependOnTheSeed() {
+        List<SimulationResult> singleThreaded;
+        try (MonteCarloEngine engine = new MonteCarloEngine(42, 64, 1)) {
+            singleThreaded = engine.simulate(CONFIG, STRATEGIES);
+        }
+
+        List<SimulationResult> multiThreaded;
+        try (MonteCarloEngine engine = new MonteCarloEngine(42, 64, 8)) {
+            multiThreaded = engine.simulate(CONFIG, STRATEGIES);
+        }
+
+        assertThat(multiThreaded).map(SimulationResult::toString)
+                .containsExactlyElementsOf(singleThreaded.stream().map(SimulationResult::toString).toList());
+    }
+
+    @Test
+    void everyIterationIsSimulatedOnce() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(3);
+                MonteCarloEngine engine = new MonteCarloEngine(7, 13, executor)) {
+            SimulationResult result = engine.simulate(new SimulationConfig(1_000, 10, 25, 0, 250, 0.6),
+                    (capital, _) -> capital / 2);
+
+            assertThat(result.toString()).contains(">>    elements: 1000");
+        }
+    }
+
+    @Test
+    void strategiesShareTheCoinFlips() {
+        try (MonteCarloEngine engine = new MonteCarloEngine(3, 16, 2)) {
+            List<SimulationResult> results = engine.simulate(CONFIG,
+                    List.of((capital, _) -> 0.3 * capital, (capital, _) -> capital, (capital, _) -> 0.3 * capital));
+
+            assertThat(results.getFirst().toString()).isEqualTo(results.getLast().toString());
+        }
+    }
+
+    // Exact runs simulate one strategy at a time, so a strategy has to see the same flips whichever strategies share
+    // its run
+    @Test
+    void strategiesSimulatedAloneSeeTheSameFlips() {
+        List<InvestmentStrategy> strategies = List.of((_, _) -> 0.0, (capital, _) -> capital);
+
+        for (PercentileMode percentileMode : PercentileMode.values()) {
+            SimulationConfig config = new SimulationConfig(2_000, 50, 25, 0, 250, 0.6, percentileMode);
+
+            try (MonteCarloEngine engine = new MonteCarloEngine(5, 16, 2)) {
+                List<SimulationResult> together = engine.simulate(config, strategies);
+                SimulationResult alone = engine.simulate(config, strategies.getLast());
+
+                assertThat(together).hasSize(2);
+                assertThat(alone.toString()).as("%s", percentileMode).isEqualTo(together.getLast().toString());
+            }
+        }
+    }
+
+    @Test
+    void batchesMatchThePathByPathSimulation() {
+        List<InvestmentStrategy> strategies = List.of(new PercentStrategy(1), new PercentStrategy(20),
+                new PercentStrategy(100));
+        int iterations = 2 * MonteCarloEngine.BATCH_LANES + 100;
+
+        for (PercentileMode percentileMode : PercentileMode.values()) {
+            SimulationConfig config = new SimulationConfig(iterations, 100, 25, 0, 250, 0.6, percentileMode);
+
+            List<SimulationResult> batches = MonteCarloEngine.simulateChunkInBatches(config, strategies, iterations,
+                    new SplittableRandom(9));
+            List<SimulationResult> pathByPath = MonteCarloEngine.simulateChunkPathByPath(config, strategies,
+                    iterations, new SplittableRandom(9), new SplittableRandom(10));
+
+            batches.forEach(SimulationResult::compute);
+            pathByPath.forEach(SimulationResult::compute);
+            assertThat(batches).as("%s", percentileMode).map(SimulationResult::toString)
+                    .containsExactlyElementsOf(pathByPath.stream().map(SimulationResult::toString).toList());
+        }
+    }
+}
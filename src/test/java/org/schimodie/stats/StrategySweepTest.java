@@ -0,0 +1,94 @@
+package org.schimodie.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StrategySweepTest {
+    // Without barriers in reach, the expected log-capital is maximised by the Kelly fraction 2p - 1
+    @Test
+    void refinementFindsTheKellyFraction() {
+        SimulationConfig config = new SimulationConfig(1, 50, 25, 0, Double.MAX_VALUE, 0.6);
+
+        double refinedPercent = StrategySweep.refine(config, List.of(1.0, 10.0, 30.0, 50.0), 0.01);
+
+        assertThat(refinedPercent).isCloseTo(20.0, within(0.05));
+    }
+
+    // Starting out ruined makes the expected log-capital -Infinity for every percent
+    @Test
+    void nothingIsRefinedWithoutAFiniteExpectedLogCapital() {
+        SimulationConfig config = new SimulationConfig(1, 20, 0, 0, 250, 0.6);
+        SweepGrid grid = SweepGrid.builder()
+                .percents(List.of(5.0, 25.0, 50.0))
+                .startingCapital(0.0)
+                .numRounds(List.of(20))
+                .numIterations(1_000)
+                .build();
+
+        assertThat(StrategySweep.refine(config, grid.getPercents(), 0.01)).isNaN();
+
+        List<SweepPoint> points;
+        try (MonteCarloEngine engine = new MonteCarloEngine(13, 8, 4)) {
+            points = new StrategySweep(engine, 0.1).run(grid);
+        }
+
+        assertThat(points).extracting(SweepPoint::percent).containsExactly(5.0, 25.0, 50.0);
+        assertThat(points).noneMatch(SweepPoint::refined);
+    }
+
+    @Test
+    void tableHasARowPerPercentAndConfiguration() {
+        SweepGrid grid = SweepGrid.builder()
+                .percents(List.of(50.0, 5.0, 25.0))
+                .coinHeadProbabilities(List.of(0.55, 0.6))
+                .numRounds(List.of(20))
+                .numIterations(2_000)
+                .build();
+
+        List<SweepPoint> points;
+        try (MonteCarloEngine engine = new MonteCarloEngine(13, 8, 4)) {
+            points = new StrategySweep(engine, 0.1).run(grid);
+        }
+
+        assertThat(points).hasSize(8);
+        assertThat(points).filteredOn(SweepPoint::refined).hasSize(2)
+                .allSatisfy(point -> assertThat(point.percent()).isBetween(5.0, 25.0));
+        assertThat(points).extracting(SweepPoint::percent).startsWith(5.0, 25.0, 50.0);
+
+        StringBuilder table = new StringBuilder();
+        StrategySweep.writeTable(points, table, StrategySweep.Format.TSV);
+        List<String> lines = table.toString().lines().toList();
+
+        assertThat(lines).hasSize(9);
+        assertThat(lines.getFirst()).startsWith("percent\tcoin_head_probability\t");
+        assertThat(lines).allSatisfy(line -> assertThat(line.split("\t")).hasSize(SweepPoint.COLUMNS.size()));
+    }
+
+    // One refinement and one task per chunk for each configuration, all on the engine's pool
+    @Test
+    void refinementsRunOnTheEnginePool() {
+        SweepGrid grid = SweepGrid.builder()
+                .percents(List.of(5.0, 25.0, 50.0))
+                .coinHeadProbabilities(List.of(0.55, 0.6))
+                .numRounds(List.of(20))
+                .numIterations(1_000)
+                .build();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+
+        List<SweepPoint> points;
+        try (executor) {
+            points = new StrategySweep(new MonteCarloEngine(13, 8, executor), 0.1).run(grid);
+        }
+
+        assertThat(points).filteredOn(SweepPoint::refined).hasSize(2);
+        assertThat(executor.getCompletedTaskCount()).isEqualTo(2 * (1 + 8));
+    }
+}